@@ -0,0 +1,143 @@
+package org.lrima.Interface;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * The points of a chart series with a column of values for each generation, kept under a maximum number of points.
+ * A column keeps at most some values evenly spread between its lowest and highest value. When there are too many columns,
+ * each two neighbour columns are merged, so a column holds more generations, and the lowest and highest values are never lost.
+ */
+class DownsampledSeries {
+    private final int maxColumns;
+    private final int valuesPerColumn;
+
+    //The number of generations in each column
+    private int generationsPerColumn = 1;
+    //The first generation of each column and its values, from the lowest
+    private final ArrayList<Integer> columnGenerations = new ArrayList<>();
+    private final ArrayList<double[]> columnValues = new ArrayList<>();
+    private int generationsInLastColumn = 0;
+
+    /**
+     * @param maxColumns the maximum number of columns
+     * @param valuesPerColumn the maximum number of values in a column, at least 2 to keep the lowest and the highest
+     */
+    DownsampledSeries(int maxColumns, int valuesPerColumn){
+        this.maxColumns = maxColumns;
+        this.valuesPerColumn = valuesPerColumn;
+    }
+
+    /**
+     * Adds the values of a generation after the other ones
+     * @param generation the number of the generation
+     * @param values the values of the generation, in any order
+     */
+    void add(int generation, double... values){
+        if(columnValues.isEmpty() || generationsInLastColumn >= generationsPerColumn){
+            columnGenerations.add(generation);
+            columnValues.add(reduce(values.clone()));
+            generationsInLastColumn = 1;
+        }
+        else {
+            int last = columnValues.size() - 1;
+            columnValues.set(last, merge(columnValues.get(last), values));
+            generationsInLastColumn++;
+        }
+
+        if(columnValues.size() > maxColumns){
+            this.mergeColumns();
+        }
+    }
+
+    /**
+     * Merges each two neighbour columns into one
+     */
+    private void mergeColumns(){
+        int lastGenerations = generationsInLastColumn;
+        ArrayList<Integer> generations = new ArrayList<>(columnGenerations);
+        ArrayList<double[]> values = new ArrayList<>(columnValues);
+        columnGenerations.clear();
+        columnValues.clear();
+
+        for(int i = 0 ; i < values.size() ; i += 2){
+            columnGenerations.add(generations.get(i));
+            columnValues.add(i + 1 < values.size() ? merge(values.get(i), values.get(i + 1)) : values.get(i));
+        }
+
+        //The last column is full only if it got a full column from before
+        generationsInLastColumn = values.size() % 2 == 0 ? generationsPerColumn + lastGenerations : lastGenerations;
+        generationsPerColumn *= 2;
+    }
+
+    private double[] merge(double[] first, double[] second){
+        double[] values = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, values, first.length, second.length);
+
+        return reduce(values);
+    }
+
+    /**
+     * Sorts values and keeps some of them evenly spread between the lowest and the highest
+     * @param values the values, sorted in place
+     * @return at most valuesPerColumn values, from the lowest
+     */
+    private double[] reduce(double[] values){
+        Arrays.sort(values);
+        if(values.length <= valuesPerColumn){
+            return values;
+        }
+
+        double[] kept = new double[valuesPerColumn];
+        for(int i = 0 ; i < valuesPerColumn ; i++){
+            kept[i] = values[(int)Math.round(i * (values.length - 1) / (double)(valuesPerColumn - 1))];
+        }
+
+        return kept;
+    }
+
+    void clear(){
+        generationsPerColumn = 1;
+        generationsInLastColumn = 0;
+        columnGenerations.clear();
+        columnValues.clear();
+    }
+
+    /**
+     * @return the generation of each point, the first generation of its column
+     */
+    double[] getXData(){
+        double[] xData = new double[this.getNumberOfPoints()];
+        int point = 0;
+        for(int i = 0 ; i < columnValues.size() ; i++){
+            for(int j = 0 ; j < columnValues.get(i).length ; j++){
+                xData[point++] = columnGenerations.get(i);
+            }
+        }
+
+        return xData;
+    }
+
+    /**
+     * @return the value of each point
+     */
+    double[] getYData(){
+        double[] yData = new double[this.getNumberOfPoints()];
+        int point = 0;
+        for(double[] values : columnValues){
+            System.arraycopy(values, 0, yData, point, values.length);
+            point += values.length;
+        }
+
+        return yData;
+    }
+
+    private int getNumberOfPoints(){
+        int numberOfPoints = 0;
+        for(double[] values : columnValues){
+            numberOfPoints += values.length;
+        }
+
+        return numberOfPoints;
+    }
+}
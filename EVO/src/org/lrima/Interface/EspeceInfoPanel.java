@@ -38,7 +38,6 @@ public class EspeceInfoPanel extends JPanel {
         load();
 
         networkPanel = new NetworkPanel(null);
-        networkPanel.start();
         this.add(networkPanel);
     }
 
@@ -125,4 +124,8 @@ public class EspeceInfoPanel extends JPanel {
 
         this.revalidate();
     }
+
+    public NetworkPanel getNetworkPanel() {
+        return networkPanel;
+    }
 }
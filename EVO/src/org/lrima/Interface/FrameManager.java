@@ -21,6 +21,9 @@ public class FrameManager extends JFrame implements SimulationListener, BatchLis
     private GraphicPanel graphicPanel;
     private EspeceInfoPanel especeInfoPanel;
 
+    //Repaints the map and the network when the simulation moved the cars
+    private RenderScheduler renderScheduler;
+
 	//Pour le menu
     private JCheckBoxMenuItem checkBoxRealtime;
     private JCheckBoxMenuItem checkBoxGraphique;
@@ -50,7 +53,10 @@ public class FrameManager extends JFrame implements SimulationListener, BatchLis
         this.add(mapPanel, BorderLayout.CENTER);
         displaySavedPanel();
 
-        this.mapPanel.start();
+        this.renderScheduler = new RenderScheduler(() -> this.simulationManager.getCurrentSimulation().getRenderSnapshot());
+        this.renderScheduler.add(mapPanel);
+        this.renderScheduler.add(especeInfoPanel.getNetworkPanel());
+        this.renderScheduler.start();
     }
 
     /**
@@ -224,7 +230,7 @@ public class FrameManager extends JFrame implements SimulationListener, BatchLis
 
     @Override
     public void dispose(){
-        mapPanel.stop();
+        renderScheduler.stop();
         super.dispose();
     }
 
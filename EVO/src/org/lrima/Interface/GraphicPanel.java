@@ -17,14 +17,14 @@ public class GraphicPanel extends JPanel {
     private XChartPanel<XYChart> chartPanel;
     private Dimension screenSize;
 
-    private ArrayList<Integer> xFitnessData = new ArrayList<>();;
-    private ArrayList<Double> yFitnessData = new ArrayList<>();;
+    //Number of generations of the simulation already in the series
+    private int generationsInChart = 0;
 
-    private ArrayList<Integer> xMedianData = new ArrayList<>();;
-    private ArrayList<Integer> yMedianData = new ArrayList<>();;
-
-    private ArrayList<Integer> xMoyenneData = new ArrayList<>();;
-    private ArrayList<Integer> yMoyenneData = new ArrayList<>();;
+    //The fitness of the cars, a few per generation with always the best and the worst
+    private DownsampledSeries fitnessData = new DownsampledSeries(200, 20);
+    //The lowest and highest median and average of the generations merged into one point
+    private DownsampledSeries medianData = new DownsampledSeries(500, 2);
+    private DownsampledSeries moyenneData = new DownsampledSeries(500, 2);
 
     public GraphicPanel(Simulation simulation){
         this.generations = simulation.getGenerationList();
@@ -36,15 +36,14 @@ public class GraphicPanel extends JPanel {
     }
 
     public void nextSimulation(Simulation simulation){
-        this.generations = simulation.getGenerationList();
-        this.xFitnessData = new ArrayList<>();
-        this.yFitnessData = new ArrayList<>();
-        this.xMedianData = new ArrayList<>();
-        this.yMedianData = new ArrayList<>();
-        this.xMoyenneData = new ArrayList<>();
-        this.yMoyenneData = new ArrayList<>();
+        synchronized (this) {
+            this.generations = simulation.getGenerationList();
+            this.generationsInChart = 0;
+            this.fitnessData.clear();
+            this.medianData.clear();
+            this.moyenneData.clear();
+        }
 
-        getFitnessData();
         updateChart();
     }
 
@@ -73,44 +72,48 @@ public class GraphicPanel extends JPanel {
         this.add(chartPanel, BorderLayout.CENTER);
     }
 
+    /**
+     * Adds the generations that are not in the series yet. The generations of the simulation are only read
+     */
     private void getFitnessData(){
-        xFitnessData = new ArrayList<>();
-        yFitnessData = new ArrayList<>();
-        xMedianData = new ArrayList<>();
-        yMedianData = new ArrayList<>();
-        xMoyenneData = new ArrayList<>();
-        yMoyenneData = new ArrayList<>();
-
-        for(Generation gen : this.generations){
-            ArrayList<Double> allFitnesses = gen.getAllFitnesses();
-            for(double fitness : allFitnesses) {
-                this.xFitnessData.add(gen.getGenerationNumber());
-                this.yFitnessData.add(fitness);
-            }
-
-            double medianFitness = gen.getMedianFitness();
-            this.xMedianData.add(gen.getGenerationNumber());
-            this.yMedianData.add((int)medianFitness);
-
-            double moyenneFitness = gen.getMoyenneFitness();
-            this.xMoyenneData.add(gen.getGenerationNumber());
-            this.yMoyenneData.add((int)moyenneFitness);
+        int numberOfGenerations = this.generations.size();
+        for(int i = generationsInChart ; i < numberOfGenerations ; i++){
+            Generation gen = this.generations.get(i);
+
+            this.fitnessData.add(gen.getGenerationNumber(), gen.getFitnesses());
+            this.medianData.add(gen.getGenerationNumber(), gen.getMedianFitness());
+            this.moyenneData.add(gen.getGenerationNumber(), gen.getMoyenneFitness());
         }
+        generationsInChart = Math.max(generationsInChart, numberOfGenerations);
     }
 
+    /**
+     * Adds the new generations to the chart. Called by the simulation when a generation ends
+     */
     public void updateChart(){
-        //Keep a maximum of 50 generations
-        if(this.generations.size() > 50){
-            //Randomly remove a generation
-            this.generations.remove(0);
+        double[] xFitnessData, yFitnessData, xMedianData, yMedianData, xMoyenneData, yMoyenneData;
+        synchronized (this) {
+            getFitnessData();
+
+            xFitnessData = fitnessData.getXData();
+            yFitnessData = fitnessData.getYData();
+            xMedianData = medianData.getXData();
+            yMedianData = medianData.getYData();
+            xMoyenneData = moyenneData.getXData();
+            yMoyenneData = moyenneData.getYData();
         }
 
-        getFitnessData();
-
-        this.chart.updateXYSeries("fitness", xFitnessData, yFitnessData, null);
-        this.chart.updateXYSeries("median", xMedianData, yMedianData, null);
-        this.chart.updateXYSeries("average", xMoyenneData, yMoyenneData, null);
-
+        //XChart needs at least one point in a series
+        if(xFitnessData.length == 0 || xMedianData.length == 0){
+            return;
+        }
 
+        //The chart is drawn by Swing, so it is changed from the Swing thread
+        SwingUtilities.invokeLater(() -> {
+            this.chart.updateXYSeries("fitness", xFitnessData, yFitnessData, null);
+            this.chart.updateXYSeries("median", xMedianData, yMedianData, null);
+            this.chart.updateXYSeries("average", xMoyenneData, yMoyenneData, null);
+            this.chartPanel.repaint();
+        });
     }
 }
@@ -0,0 +1,79 @@
+package org.lrima.Interface;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Repaints the panels that show the simulation when it published something new, at most once per refresh of the screen.
+ * The panels that are not on the screen, or in a minimized window, are not repainted. Swing paints them when they are shown again.
+ */
+public class RenderScheduler {
+    //Used when the refresh rate of the screen is not known
+    private static final int DEFAULT_REFRESH_RATE = 60;
+
+    //Gives what the simulation published last. The panels are repainted when it is not the same object anymore
+    private final Supplier<Object> frames;
+    private final ArrayList<JComponent> components = new ArrayList<>();
+    private final Timer timer;
+
+    private Object lastFrame;
+
+    /**
+     * @param frames gives what the simulation published last, like its render snapshot
+     */
+    public RenderScheduler(Supplier<Object> frames){
+        this.frames = frames;
+        this.timer = new Timer(1000 / getRefreshRate(), e -> this.repaintIfNeeded());
+        this.timer.setCoalesce(true);
+    }
+
+    /**
+     * @return the refresh rate of the screen
+     */
+    private static int getRefreshRate(){
+        if(GraphicsEnvironment.isHeadless()){
+            return DEFAULT_REFRESH_RATE;
+        }
+
+        int refreshRate = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDisplayMode().getRefreshRate();
+        return refreshRate != DisplayMode.REFRESH_RATE_UNKNOWN ? refreshRate : DEFAULT_REFRESH_RATE;
+    }
+
+    /**
+     * Repaints the component when the simulation publishes something new
+     * @param component the component to repaint
+     */
+    public void add(JComponent component){
+        components.add(component);
+    }
+
+    public void start(){
+        timer.start();
+    }
+
+    public void stop(){
+        timer.stop();
+    }
+
+    private void repaintIfNeeded(){
+        Object frame = frames.get();
+        if(frame == lastFrame){
+            return;
+        }
+        lastFrame = frame;
+
+        for(JComponent component : components){
+            if(component.isShowing() && !isMinimized(component)){
+                component.repaint();
+            }
+        }
+    }
+
+    private static boolean isMinimized(Component component){
+        Window window = SwingUtilities.getWindowAncestor(component);
+
+        return window instanceof Frame && (((Frame) window).getExtendedState() & Frame.ICONIFIED) != 0;
+    }
+}
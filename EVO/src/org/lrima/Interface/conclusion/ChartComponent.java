@@ -2,7 +2,6 @@ package org.lrima.Interface.conclusion;
 
 import org.knowm.xchart.*;
 import org.knowm.xchart.style.markers.SeriesMarkers;
-import org.lrima.network.interfaces.NeuralNetworkModel;
 import org.lrima.simulation.SimulationInformation;
 
 import javax.imageio.ImageIO;
@@ -24,16 +23,16 @@ public class ChartComponent extends JComponent {
     private double[][] dataY;
 
     private ArrayList<SimulationInformation> simulations;
-    private NeuralNetworkModel algorithm;
+    private String algorithmName;
 
     private Dimension screensize;
     private double max, min;
 
     private JButton saveButton = new JButton("Save");
 
-    public ChartComponent(NeuralNetworkModel algorithm, ArrayList<SimulationInformation> simulations, double max, double min){
+    public ChartComponent(String algorithmName, ArrayList<SimulationInformation> simulations, double max, double min){
         super();
-        this.algorithm = algorithm;
+        this.algorithmName = algorithmName;
         this.simulations = simulations;
         this.screensize = Toolkit.getDefaultToolkit().getScreenSize();
         this.min = min;
@@ -78,7 +77,7 @@ public class ChartComponent extends JComponent {
 
     private void showChart(){
         int chartWidth = (screensize.width / 2) - (ChartPanel.MARGIN_BETWEEN_CHARTS);
-        batchChart = new XYChartBuilder().title(algorithm.getAlgorithmInformationAnnotation().name()).xAxisTitle("Generation").yAxisTitle("Fitness").width(chartWidth).height(screensize.height / 3).build();
+        batchChart = new XYChartBuilder().title(algorithmName).xAxisTitle("Generation").yAxisTitle("Fitness").width(chartWidth).height(screensize.height / 3).build();
         batchChart.getStyler().setYAxisMax(max);
         batchChart.getStyler().setYAxisMin(min);
         this.getData();
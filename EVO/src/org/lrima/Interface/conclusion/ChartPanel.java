@@ -3,8 +3,7 @@ package org.lrima.Interface.conclusion;
 import org.knowm.xchart.XChartPanel;
 import org.knowm.xchart.XYChart;
 import org.knowm.xchart.XYChartBuilder;
-import org.lrima.network.interfaces.NeuralNetworkModel;
-import org.lrima.simulation.SimulationBatch;
+import org.lrima.simulation.BatchResults;
 import org.lrima.simulation.SimulationInformation;
 
 import javax.swing.*;
@@ -14,12 +13,12 @@ import java.util.Set;
 
 public class ChartPanel extends JPanel {
     //private HashMap<Class<?extends NeuralNetwork>, ArrayList<SimulationInformation>> simulationInformations;
-    private ArrayList<SimulationBatch> algorithmBatches;
+    private ArrayList<? extends BatchResults> algorithmBatches;
     static public int MARGIN_BETWEEN_CHARTS = 20;
     private Dimension screenDimension;
 
 
-    public ChartPanel(ArrayList<SimulationBatch> algorithmSimulations){
+    public ChartPanel(ArrayList<? extends BatchResults> algorithmSimulations){
         this.algorithmBatches = algorithmSimulations;
         this.screenDimension = Toolkit.getDefaultToolkit().getScreenSize();
 
@@ -35,7 +34,7 @@ public class ChartPanel extends JPanel {
         double max = 0;
         double min = 0;
 
-        for(SimulationBatch batch : this.algorithmBatches){
+        for(BatchResults batch : this.algorithmBatches){
             ArrayList<SimulationInformation> informations = batch.getSimulationInformations();
             for(SimulationInformation information : informations){
                 if(max < information.getMaxFitness()){
@@ -47,11 +46,10 @@ public class ChartPanel extends JPanel {
             }
         }
 
-        for(SimulationBatch batch : this.algorithmBatches){
-            NeuralNetworkModel algorithm = batch.getAlgorithmModel();
+        for(BatchResults batch : this.algorithmBatches){
             ArrayList<SimulationInformation> simulationInformations = batch.getSimulationInformations();
 
-            ChartComponent chart = new ChartComponent(algorithm, simulationInformations, max, min);
+            ChartComponent chart = new ChartComponent(batch.getAlgorithmName(), simulationInformations, max, min);
             graphicPanel.add(chart);
         }
 
@@ -63,9 +61,9 @@ public class ChartPanel extends JPanel {
         int chartHeight = (int)(screenDimension.height / 3);
         XYChart allAlgorithmChart = new XYChartBuilder().title("Overall fitness over time").xAxisTitle("Generation").yAxisTitle("Fitness").width(chartWidth).height(chartHeight).build();
 
-        for(SimulationBatch batch : this.algorithmBatches){
+        for(BatchResults batch : this.algorithmBatches){
             ArrayList<String> names = new ArrayList<>(allAlgorithmChart.getSeriesMap().keySet());
-            String serieName = batch.getAlgorithmModel().getName() == null ? batch.getAlgorithmModel().getAlgorithmInformationAnnotation().name() : batch.getAlgorithmModel().getName();
+            String serieName = batch.getAlgorithmName();
 
             /*if(names.size() > 0) {
                 serieName = names.get(0);
@@ -76,7 +74,8 @@ public class ChartPanel extends JPanel {
                 } while (names.contains(serieName));
             }*/
 
-            allAlgorithmChart.addSeries(serieName, this.getGenerationsAsList(batch), batch.getAverageFitnessPerGeneration());
+            double[] averageFitnesses = batch.getAverageFitnessPerGeneration();
+            allAlgorithmChart.addSeries(serieName, this.getGenerationsAsList(averageFitnesses.length), averageFitnesses);
 
         }
 
@@ -85,8 +84,8 @@ public class ChartPanel extends JPanel {
         this.add(chartPanel, BorderLayout.NORTH);
     }
 
-    private double[] getGenerationsAsList(SimulationBatch batch){
-        double[] generations = new double[batch.getSimulations()[0].getGenerationList().size()];
+    private double[] getGenerationsAsList(int numberOfGenerations){
+        double[] generations = new double[numberOfGenerations];
 
         for(int i = 0 ; i < generations.length ; i++){
             generations[i] = i + 1;
@@ -1,22 +1,41 @@
 package org.lrima.Interface.conclusion;
 
-import org.lrima.simulation.SimulationBatch;
+import org.lrima.simulation.BatchResults;
+import org.lrima.simulation.ResultsFile;
 
 import javax.swing.*;
 import java.awt.*;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 
 public class ConclusionFrame extends JFrame {
 
+    /**
+     * Compares the results of past runs
+     * Usage : java -cp EVO.jar org.lrima.Interface.conclusion.ConclusionFrame data/test0.evo data/test1.evo ...
+     * @param args the results files written by the batches
+     */
     public static void main(String[] args) {
-        ConclusionFrame c = new ConclusionFrame(new ArrayList<SimulationBatch>());
+        ArrayList<BatchResults> batches = new ArrayList<>();
+
+        for(String fileName : args){
+            try {
+                batches.addAll(ResultsFile.read(new File(fileName)));
+            } catch (IOException e) {
+                System.err.println("Could not read the results file " + fileName);
+                e.printStackTrace();
+            }
+        }
+
+        ConclusionFrame c = new ConclusionFrame(batches);
 
         c.setVisible(true);
     }
 
-    private ArrayList<SimulationBatch> simulationBatches;
+    private ArrayList<? extends BatchResults> simulationBatches;
 
-    public ConclusionFrame(ArrayList<SimulationBatch> simulationBatches){
+    public ConclusionFrame(ArrayList<? extends BatchResults> simulationBatches){
         Dimension screenSizes = Toolkit.getDefaultToolkit().getScreenSize();
         this.setSize(screenSizes);
         this.setExtendedState(JFrame.MAXIMIZED_BOTH);
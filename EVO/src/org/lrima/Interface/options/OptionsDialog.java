@@ -69,6 +69,19 @@ public class OptionsDialog extends JDialog implements ActionListener {
         simulationTab.add(UserPrefs.KEY_NUMBER_SIMULATION);
         simulationTab.add(UserPrefs.KEY_NUMBER_GENERATION_PER_SIMULATION);
         simulationTab.add(UserPrefs.KEY_MAP_TO_USE);
+        simulationTab.add(UserPrefs.KEY_TICK_THREADS);
+        simulationTab.add(UserPrefs.KEY_SIMULATIONS_IN_PARALLEL);
+        simulationTab.add(UserPrefs.KEY_BATCHED_INFERENCE);
+        simulationTab.add(UserPrefs.KEY_SPECULATIVE_BREEDING);
+        simulationTab.add(UserPrefs.KEY_EPISODE_EVALUATION);
+        simulationTab.add(UserPrefs.KEY_NUMBER_OF_ISLANDS);
+        simulationTab.add(UserPrefs.KEY_ISLAND_MIGRATION_INTERVAL);
+        simulationTab.add(UserPrefs.KEY_ISLAND_MIGRANTS);
+        simulationTab.add(UserPrefs.KEY_STEADY_STATE);
+        simulationTab.add(UserPrefs.KEY_HISTORY_ON_DISK);
+        simulationTab.add(UserPrefs.KEY_RENDER_RATE);
+        simulationTab.add(UserPrefs.KEY_RESULTS_SYNC_INTERVAL);
+        simulationTab.add(UserPrefs.KEY_SEED);
 
         allTabs.put("Simulation", simulationTab);
 
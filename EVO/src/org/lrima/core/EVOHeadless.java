@@ -0,0 +1,90 @@
+package org.lrima.core;
+
+import org.lrima.simulation.BatchListener;
+import org.lrima.simulation.SimulationBatch;
+import org.lrima.simulation.SimulationJob;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Runs the simulations described by a job file without opening any window.
+ * Usage : java -cp EVO.jar org.lrima.core.EVOHeadless job.properties
+ * See {@link SimulationJob} for the format of the job file.
+ */
+public class EVOHeadless implements BatchListener {
+
+    private final ArrayList<SimulationBatch> simulationBatches;
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private int currentBatch = 0;
+
+    public static void main(String[] args) {
+        //Must be set before any AWT class is used
+        System.setProperty("java.awt.headless", "true");
+
+        if(args.length < 1){
+            System.err.println("Usage : EVOHeadless <job file>");
+            System.exit(1);
+        }
+
+        try {
+            SimulationJob job = new SimulationJob(new File(args[0]));
+            EVOHeadless runner = new EVOHeadless(job.createBatches());
+
+            //The batches write each generation in the file as soon as it ends
+            if(!runner.simulationBatches.isEmpty()){
+                System.out.println("Printing in CSV file at " + runner.simulationBatches.get(0).getResultsFile().getAbsolutePath());
+            }
+
+            long start = System.currentTimeMillis();
+            runner.run();
+            System.out.println("All simulations finished in " + (System.currentTimeMillis() - start) / 1000.0 + " s");
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+
+        System.exit(0);
+    }
+
+    public EVOHeadless(ArrayList<SimulationBatch> simulationBatches){
+        this.simulationBatches = simulationBatches;
+        this.simulationBatches.forEach(batch -> batch.addBatchListener(this));
+    }
+
+    /**
+     * Runs all the batches one after the other and waits for the last one to finish
+     */
+    public void run() throws InterruptedException {
+        if(simulationBatches.isEmpty()){
+            return;
+        }
+
+        this.startBatch();
+        this.finished.await();
+    }
+
+    private void startBatch(){
+        SimulationBatch batch = simulationBatches.get(currentBatch);
+        System.out.println("Algorithm: " + batch.getAlgorithmModel().getName() + " (" + (currentBatch + 1) + " / " + simulationBatches.size() + ")");
+        batch.startBatch();
+    }
+
+    @Override
+    public void batchFinished() {
+        if(currentBatch + 1 >= this.simulationBatches.size()) {
+            finished.countDown();
+        }
+        else {
+            this.currentBatch++;
+            this.startBatch();
+        }
+    }
+
+    @Override
+    public void nextSimulationInBatch() {
+        SimulationBatch batch = simulationBatches.get(currentBatch);
+        System.out.println("Simulation " + (batch.getCurrentSimulationIndex() + 1) + " / " + batch.getBatchSize());
+    }
+}
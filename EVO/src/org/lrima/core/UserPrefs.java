@@ -6,7 +6,7 @@ import org.lrima.Interface.options.types.*;
 import javax.swing.*;
 import java.io.File;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.prefs.Preferences;
 
 public class UserPrefs {
@@ -20,7 +20,8 @@ public class UserPrefs {
 
 
     public static Preferences preferences = Preferences.userRoot().node(UserPrefs.class.getName());
-    private static LinkedHashMap<String, Option> allOptions = new LinkedHashMap<>();
+    //Read by the simulation threads while the interface can modify it
+    private static ConcurrentHashMap<String, Option> allOptions = new ConcurrentHashMap<>();
     private static int NUMBERCARS;
     private static int VITESSE_VOITURE;
     private static double TURNRATE;
@@ -61,6 +62,20 @@ public class UserPrefs {
           
     final public static String KEY_MAP_TO_USE = "MAP_TO_USE";
 
+    final public static String KEY_TICK_THREADS = "TICK_THREADS";
+    final public static String KEY_SIMULATIONS_IN_PARALLEL = "SIMULATIONS_IN_PARALLEL";
+    final public static String KEY_BATCHED_INFERENCE = "BATCHED_INFERENCE";
+    final public static String KEY_SPECULATIVE_BREEDING = "SPECULATIVE_BREEDING";
+    final public static String KEY_EPISODE_EVALUATION = "EPISODE_EVALUATION";
+    final public static String KEY_NUMBER_OF_ISLANDS = "NUMBER_OF_ISLANDS";
+    final public static String KEY_ISLAND_MIGRATION_INTERVAL = "ISLAND_MIGRATION_INTERVAL";
+    final public static String KEY_ISLAND_MIGRANTS = "ISLAND_MIGRANTS";
+    final public static String KEY_STEADY_STATE = "STEADY_STATE";
+    final public static String KEY_HISTORY_ON_DISK = "HISTORY_ON_DISK";
+    final public static String KEY_RENDER_RATE = "RENDER_RATE";
+    final public static String KEY_RESULTS_SYNC_INTERVAL = "RESULTS_SYNC_INTERVAL";
+    final public static String KEY_SEED = "SEED";
+
     //Defaults
     final private static HashMap<String, Option> defaultValues = new HashMap<>();
 
@@ -78,6 +93,20 @@ public class UserPrefs {
         defaultValues.put(KEY_MAP_TO_USE, new OptionFile(new File("./default.map")));
         defaultValues.put(KEY_NUMBER_SIMULATION, new OptionInt(1, 1, 10, 1));
         defaultValues.put(KEY_NUMBER_GENERATION_PER_SIMULATION, new OptionInt(10, 1, 1000, 1));
+        defaultValues.put(KEY_TICK_THREADS, new OptionInt(1, 1, 256, 1));
+        defaultValues.put(KEY_SIMULATIONS_IN_PARALLEL, new OptionInt(1, 1, 64, 1));
+        defaultValues.put(KEY_BATCHED_INFERENCE, new OptionBoolean(false));
+        defaultValues.put(KEY_SPECULATIVE_BREEDING, new OptionBoolean(false));
+        defaultValues.put(KEY_EPISODE_EVALUATION, new OptionBoolean(false));
+        defaultValues.put(KEY_NUMBER_OF_ISLANDS, new OptionInt(4, 1, 64, 1));
+        defaultValues.put(KEY_ISLAND_MIGRATION_INTERVAL, new OptionInt(0, 0, 1000, 1));
+        defaultValues.put(KEY_ISLAND_MIGRANTS, new OptionInt(2, 1, 100, 1));
+        defaultValues.put(KEY_STEADY_STATE, new OptionBoolean(false));
+        defaultValues.put(KEY_HISTORY_ON_DISK, new OptionBoolean(false));
+        defaultValues.put(KEY_RENDER_RATE, new OptionInt(60, 1, 240, 10));
+        defaultValues.put(KEY_RESULTS_SYNC_INTERVAL, new OptionInt(10, 1, 1000, 1));
+        //0 to use a new seed for each batch
+        defaultValues.put(KEY_SEED, new OptionInt(0, 0, Integer.MAX_VALUE, 1));
         //defaultValues.put(KEY_NUMBER_SENSOR, new OptionInt(5, 1, 180, 1));
     }
 
@@ -103,25 +132,35 @@ public class UserPrefs {
 
 
     private static <T> Option<T> get(String key){
+        if(!allOptions.containsKey(key)){
+            UserPrefs.create(key);
+        }
+
         Option<T> currentOption = allOptions.get(key);
+        return currentOption;
+    }
 
-        if(currentOption == null){
+    /**
+     * Creates the option from the saved preferences the first time it is accessed
+     * @param key the key of the option
+     */
+    private static synchronized void create(String key){
+        if(!allOptions.containsKey(key)){
+            Option<?> currentOption = null;
             if(defaultValues.get(key).getClassValue() == String.class)
-                currentOption = (Option<T>) new OptionString(preferences.get(key, (String) defaultValues.get(key).getValue()));
+                currentOption = new OptionString(preferences.get(key, (String) defaultValues.get(key).getValue()));
             else if(defaultValues.get(key).getClassValue() == Integer.class)
-                currentOption = (Option<T>) new OptionInt(preferences.getInt(key, (int) defaultValues.get(key).getValue()), (OptionInt) defaultValues.get(key));
+                currentOption = new OptionInt(preferences.getInt(key, (int) defaultValues.get(key).getValue()), (OptionInt) defaultValues.get(key));
             else if(defaultValues.get(key).getClassValue() == Double.class)
-                currentOption = (Option<T>) new OptionDouble(preferences.getDouble(key, (double) defaultValues.get(key).getValue()), (OptionDouble) defaultValues.get(key));
+                currentOption = new OptionDouble(preferences.getDouble(key, (double) defaultValues.get(key).getValue()), (OptionDouble) defaultValues.get(key));
             else if(defaultValues.get(key).getClassValue() == Boolean.class)
-                currentOption = (Option<T>) new OptionBoolean(preferences.getBoolean(key, (boolean) defaultValues.get(key).getValue()));
+                currentOption = new OptionBoolean(preferences.getBoolean(key, (boolean) defaultValues.get(key).getValue()));
             else if(defaultValues.get(key).getClassValue() == File.class) {
-                currentOption = (Option<T>) new OptionFile(new File(preferences.get(key, ((File) defaultValues.get(key).getValue()).getPath())));
+                currentOption = new OptionFile(new File(preferences.get(key, ((File) defaultValues.get(key).getValue()).getPath())));
             }
             currentOption.addOptionValueChangeListener(option -> option.save(key, preferences));
             allOptions.put(key, currentOption);
         }
-
-        return currentOption;
     }
 
     public static void set(String key, Option value){
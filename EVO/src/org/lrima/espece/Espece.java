@@ -2,7 +2,6 @@ package org.lrima.espece;
 
 import java.awt.*;
 import java.awt.geom.AffineTransform;
-import java.awt.geom.Area;
 import java.awt.geom.Path2D;
 import java.util.*;
 
@@ -24,7 +23,7 @@ public class Espece implements Comparable<Espece>, NeuralNetworkReceiver {
 	@DisplayInfo
 	private int NB_CAPTEUR;
 	//Width has to be bigger than the height
-	private static final int ESPECES_WIDTH = 74, ESPECES_HEIGHT = 50;
+	public static final int ESPECES_WIDTH = 74, ESPECES_HEIGHT = 50;
 
 	//Stores the position of the car
 	private double x, y;
@@ -87,13 +86,15 @@ public class Espece implements Comparable<Espece>, NeuralNetworkReceiver {
 
 	//Used to store the color of the car
 	private Color voitureColor = Color.RED;
-	private final Color SELECTED_CAR_BORDER_COLOR = new Color(83, 75, 255, 158);
+	private static final Color SELECTED_CAR_BORDER_COLOR = new Color(83, 75, 255, 158);
 
 	//Stores the simulation reference
 	private Simulation simulation;
 	private NeuralNetworkModel algorithmModel;
 
 	private double diedAtTime;
+	//The time of the car while it runs its episode on its own, NaN when it follows the time of the simulation
+	private double episodeTime = Double.NaN;
 
 	private AffineTransform transform = new AffineTransform();
 
@@ -107,7 +108,7 @@ public class Espece implements Comparable<Espece>, NeuralNetworkReceiver {
 
 		//Do the base configuration
 		this.simulation = simulation;
-		this.bornOnGeneration = simulation.getGeneration();
+		this.bornOnGeneration = simulation.getBreedingGeneration();
 		this.alive = true;
 
 		//Get the starting parameters from the map
@@ -168,7 +169,7 @@ public class Espece implements Comparable<Espece>, NeuralNetworkReceiver {
         totalSpeed = this.totalSpeed;
         maxDistanceFromStart = this.maxDistanceFromStart;
         totalDistanceTraveled = this.totalDistanceTraveled;
-        double diedAtTime = Simulation.simulationTime;
+        double diedAtTime = this.getTime();
 
 
 		//TODO: Crez votre propre fonction de fitness ici
@@ -182,6 +183,19 @@ public class Espece implements Comparable<Espece>, NeuralNetworkReceiver {
 		return fitness;
 	}
 
+	/**
+	 * The highest fitness the car could still get during this generation.
+	 * It has to follow {@link #fitnessFunction()}
+	 * @param maxDistance the longest distance the car can still travel
+	 * @return the fitness if the car goes straight away from the start
+	 */
+	public double getMaxReachableFitness(double maxDistance){
+		//distanceFrom() is the square of the distance, rounded down
+		double distance = Math.sqrt(distanceFrom(this.simulation.getMap().getDepart()) + 1) + maxDistance;
+
+		return Math.max(this.fitness, distance * distance / 10000);
+	}
+
 	/**
 	 * Creates NB_CAPTEUR number of sensors equally distanced from each other
 	 */
@@ -229,6 +243,15 @@ public class Espece implements Comparable<Espece>, NeuralNetworkReceiver {
 	 * @param timePassed the time that passed since the last call of update
 	 */
 	public void update(double timePassed) {
+		this.update(timePassed, true);
+	}
+
+	/**
+	 * Get the fitness and update the speed of the wheels from the neural network
+	 * @param timePassed the time that passed since the last call of update
+	 * @param feedForward false if the output of the neural network was already given to the car for this tick
+	 */
+	public void update(double timePassed, boolean feedForward) {
 		//No need to update if car is not alive
 		if(!alive) {
 			return;
@@ -238,7 +261,9 @@ public class Espece implements Comparable<Espece>, NeuralNetworkReceiver {
 		this.calculateFitnessScore();
 		this.neuralNetwork.setFitness(this.fitness);
 
-		neuralNetwork.feedForward();
+		if(feedForward) {
+			neuralNetwork.feedForward();
+		}
 
 		//Get the car speed and turn rate from the settings
         int savedCarSpeed = UserPrefs.getInt(UserPrefs.KEY_CAR_SPEED);
@@ -285,13 +310,21 @@ public class Espece implements Comparable<Espece>, NeuralNetworkReceiver {
 		this.maxDistanceFromStart = 0;
 	}
 
-	public void draw(Graphics2D g) {
-		//Set the color of the car based on its fitness
-		setColor();
-		g.setColor(voitureColor);
+	/**
+	 * Draws a car from the values copied by the simulation, so the car itself is not read while it moves
+	 * @param g the graphics to draw into
+	 * @param x the x position of the car, see {@link #getPosition()}
+	 * @param y the y position of the car
+	 * @param orientationRad the orientation of the car
+	 * @param color the color of the car, see {@link #getColor()}
+	 * @param selected true to draw the contour of the selected car
+	 */
+	public static void draw(Graphics2D g, int x, int y, double orientationRad, Color color, boolean selected) {
+		Path2D.Double shape = getShape(x, y, orientationRad);
+		g.setColor(color);
 
 		//Get all the points of the car and draws it
-		g.fill(this.getShape());
+		g.fill(shape);
 
 		//Draw the contour of the car.
 		//If the car is selected. Set the color of the contour to blue
@@ -300,17 +333,29 @@ public class Espece implements Comparable<Espece>, NeuralNetworkReceiver {
 		if(selected){
 			g.setColor(SELECTED_CAR_BORDER_COLOR);
 		}
-		g.draw(this.getShape());
+		g.draw(shape);
 
 		g.setStroke(new BasicStroke(3));
+	}
 
-		//Draw the sensors
-		if(selected) {
-			for (Capteur c : capteurs) {
-				g.setColor(Color.CYAN);
-				c.draw(g);
-			}
-		}
+	/**
+	 * Gets the center of a car at a position
+	 * @param x the x position of the car, see {@link #getPosition()}
+	 * @param y the y position of the car
+	 * @param orientationRad the orientation of the car
+	 * @return the center of the car
+	 */
+	public static Point getCenter(int x, int y, double orientationRad) {
+		return rotatePoint(new Point(x + ESPECES_WIDTH / 2, y + ESPECES_HEIGHT / 2), x, y, orientationRad);
+	}
+
+	/**
+	 * Set the color of the car depending on its fitness and returns it
+	 * @return the color to draw the car with
+	 */
+	public Color getColor(){
+		setColor();
+		return voitureColor;
 	}
 
 	/**
@@ -341,9 +386,18 @@ public class Espece implements Comparable<Espece>, NeuralNetworkReceiver {
 	 * @return the true position based on the rotation of the car
 	 */
 	private Point rotatePoint(Point point){
-		int centerX = (int)x;
-		int centerY = (int)y;
+		return rotatePoint(point, (int)x, (int)y, orientationRad);
+	}
 
+	/**
+	 * Get the position of a point of a car
+	 * @param point the point before the rotation
+	 * @param centerX the x position of the car, the center of the rotation
+	 * @param centerY the y position of the car
+	 * @param orientationRad the orientation of the car
+	 * @return the position of the point after the rotation
+	 */
+	private static Point rotatePoint(Point point, int centerX, int centerY, double orientationRad){
 		int newX = (int)((point.x-centerX)*Math.cos(orientationRad) - (point.y-centerY) * Math.sin(orientationRad)) + centerX;
 		int newY = (int)((point.x-centerX)*Math.sin(orientationRad) + (point.y-centerY) * Math.cos(orientationRad)) + centerY;
 
@@ -355,7 +409,23 @@ public class Espece implements Comparable<Espece>, NeuralNetworkReceiver {
 	 */
 	public void kill() {
 		alive = false;
-		this.diedAtTime = Simulation.simulationTime;
+		this.diedAtTime = this.getTime();
+	}
+
+	/**
+	 * @return the time of the simulation for this car, in ms
+	 */
+	private double getTime() {
+		return Double.isNaN(episodeTime) ? this.simulation.getSimulationTime() : episodeTime;
+	}
+
+	/**
+	 * Gives the car its own time while it runs its episode, because the time of the simulation
+	 * only changes once all the cars ran theirs
+	 * @param episodeTime the time of the simulation at the current tick of the car, NaN to follow the time of the simulation again
+	 */
+	public void setEpisodeTime(double episodeTime) {
+		this.episodeTime = episodeTime;
 	}
 
 	/**
@@ -394,37 +464,20 @@ public class Espece implements Comparable<Espece>, NeuralNetworkReceiver {
 
 	}
 
-	Path2D.Double mapShape;
-
 	/**
 	 * If the car is alive, it checks if it is coliding with an obstale.
-	 * If it is, it adds it to the closed set and kills it
+	 * If it is, it kills it. The simulation is responsible for moving it to the closed set
+	 * so that this method can be called from multiple threads at the same time.
 	 * @param map the map to retreive the walls from the map
 	 * @return true if it should die, false otherwise
 	 */
 	public boolean shouldDie(Map map){
 		//Regarde si l'espce meurt
 		if(this.alive) {
-			if(mapShape == null)
-				mapShape = map.getShape();
-			Path2D especeShape = this.getShape();
-
-			Area intersection = new Area(mapShape);
-			intersection.intersect(new Area(especeShape));
-
-			Area substract = new Area(especeShape);
-			substract.subtract(new Area(mapShape));
-
-			if(!substract.isEmpty() && !(intersection.getBounds().equals(especeShape.getBounds()))) {
-				try {
-					this.simulation.addEspeceToClosed(this);
-					this.kill();
-
-					return true;
-				} catch (Exception e1) {
-					e1.printStackTrace();
-					simulation.setRunning(false);
-				}
+			if(map.getGeometry().getOutline().isOutside(getTopLeft(), getTopRight(), getBottomRight(), getBottomLeft())) {
+				this.kill();
+
+				return true;
 			}
 			else
 				return false;
@@ -433,16 +486,39 @@ public class Espece implements Comparable<Espece>, NeuralNetworkReceiver {
 	}
 
 	public Path2D.Double getShape(){
+		return getShape((int)x, (int)y, orientationRad);
+	}
+
+	/**
+	 * Gets the shape of a car at a position
+	 * @param x the x position of the car, see {@link #getPosition()}
+	 * @param y the y position of the car
+	 * @param orientationRad the orientation of the car
+	 * @return the shape of the car
+	 */
+	public static Path2D.Double getShape(int x, int y, double orientationRad){
+		Point topLeft = rotatePoint(new Point(x, y), x, y, orientationRad);
+		Point topRight = rotatePoint(new Point(x + ESPECES_WIDTH, y), x, y, orientationRad);
+		Point bottomRight = rotatePoint(new Point(x + ESPECES_WIDTH, y + ESPECES_HEIGHT), x, y, orientationRad);
+		Point bottomLeft = rotatePoint(new Point(x, y + ESPECES_HEIGHT), x, y, orientationRad);
+
 		Path2D.Double path = new Path2D.Double();
-		path.moveTo(getTopLeft().x, getTopLeft().y);
-		path.lineTo(getTopRight().x, getTopRight().y);
-		path.lineTo(getBottomRight().x, getBottomRight().y);
-		path.lineTo(getBottomLeft().x, getBottomLeft().y);
+		path.moveTo(topLeft.x, topLeft.y);
+		path.lineTo(topRight.x, topRight.y);
+		path.lineTo(bottomRight.x, bottomRight.y);
+		path.lineTo(bottomLeft.x, bottomLeft.y);
 		path.closePath();
 
 		return path;
 	}
 
+	/**
+	 * @return the position of the top left corner of the car before its rotation, the center of the rotation
+	 */
+	public Point getPosition(){
+		return new Point((int)x, (int)y);
+	}
+
 	//*******===========================================================================
 	// * ACCESSORS AND MUTATORS
 	// * ACCESSORS AND MUTATORS
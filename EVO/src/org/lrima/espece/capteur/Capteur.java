@@ -20,9 +20,9 @@ public class Capteur implements NeuralNetworkTransmitter {
 	public Obstacle lastObstacleCollided;
 	Simulation simulation;
 
-	private final Color SENSOR_COLOR = new Color(117, 104, 255);
+	private static final Color SENSOR_COLOR = new Color(117, 104, 255);
 	private final Color SENSOR_LINE_COLOR = new Color(31, 233, 13, 155);
-	private final Dimension SENSOR_DOT_SIZE = new Dimension(10, 10);
+	private static final Dimension SENSOR_DOT_SIZE = new Dimension(10, 10);
 	
 	public Capteur(Espece e, double angle, int x, int y) {
 		this.e = e;
@@ -46,15 +46,21 @@ public class Capteur implements NeuralNetworkTransmitter {
 		}
 	}
 	/**
-	 * Dessine une ligne bleu la ou le capteur est
-	 * @param g
+	 * @return the position of the point where the sensor touches something
 	 */
-	public void draw(Graphics2D g) {
-		g.setColor(this.SENSOR_COLOR);
-		g.fillOval((int)getPoint1().x + (int)(getLongeurX()*value) - SENSOR_DOT_SIZE.width / 2,(int)getPoint1().y + (int)(getLongeurY()*value) - (SENSOR_DOT_SIZE.height / 2), SENSOR_DOT_SIZE.width, SENSOR_DOT_SIZE.height);
+	public Point getDotPosition(){
+		return new Point((int)getPoint1().x + (int)(getLongeurX()*value), (int)getPoint1().y + (int)(getLongeurY()*value));
+	}
 
-		g.setColor(this.SENSOR_LINE_COLOR);
-		//g.drawLine((int)getPoint1().x, (int)getPoint1().y, (int)getPoint2().x, (int)getPoint2().y);
+	/**
+	 * Dessine un point la ou le capteur touche quelque chose
+	 * @param g
+	 * @param x the x position of the point, see {@link #getDotPosition()}
+	 * @param y the y position of the point
+	 */
+	public static void drawDot(Graphics2D g, int x, int y) {
+		g.setColor(SENSOR_COLOR);
+		g.fillOval(x - SENSOR_DOT_SIZE.width / 2, y - (SENSOR_DOT_SIZE.height / 2), SENSOR_DOT_SIZE.width, SENSOR_DOT_SIZE.height);
 	}
 
 	public Point.Double getPoint1(){
@@ -2,8 +2,11 @@ package org.lrima.map;
 
 import java.awt.*;
 import java.awt.geom.Path2D;
+import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -15,6 +18,10 @@ import org.lrima.map.Studio.Drawables.Obstacle;
 import org.lrima.simulation.Simulation;
 
 public class Map implements Serializable {
+    //Keeps the saved .map files readable when this class changes
+    private static final long serialVersionUID = -119443143793133661L;
+    //The serialVersionUID of the older class that saved default.map, with the same fields
+    private static final long OLD_SERIAL_VERSION_UID = 1772480797571908608L;
 
     //All the obstacles in the map
 	private ArrayList<Obstacle> obstacles = new ArrayList<>();
@@ -24,6 +31,9 @@ public class Map implements Serializable {
 	//The size of the map
 	private int mapWidth, mapHeight;
 
+	//The lines of the obstacles used by the simulations. Built when first needed
+	private transient volatile MapGeometry geometry;
+
 
     /**
      * Initialize a map
@@ -40,16 +50,7 @@ public class Map implements Serializable {
      */
     static public Map loadMapFromPreferences(){
         try {
-            String filePath = UserPrefs.getFile(UserPrefs.KEY_MAP_TO_USE).getPath();
-
-
-            //Open the file
-            FileInputStream fis = new FileInputStream(filePath);
-            ObjectInputStream ois = new ObjectInputStream(fis);
-
-            Map map = (Map) ois.readObject();
-
-            return map;
+            return loadMap(UserPrefs.getFile(UserPrefs.KEY_MAP_TO_USE));
 
         }catch (Exception e){
             e.printStackTrace();
@@ -57,15 +58,7 @@ public class Map implements Serializable {
 
             //If the path of the map to use in the preferences doesn't exist, Use default.map instead
             try {
-                String filePath = "./default.map";
-
-                //Open the file
-                FileInputStream fis = new FileInputStream(filePath);
-                ObjectInputStream ois = new ObjectInputStream(fis);
-
-                Map map = (Map) ois.readObject();
-
-                return map;
+                return loadMap(new File("./default.map"));
 
             }catch (Exception e2){
                 System.err.println("The file 'default.map' doesn't exist !");
@@ -76,6 +69,49 @@ public class Map implements Serializable {
         return null;
     }
 
+    /**
+     * Load a map saved by the studio. The maps saved by the older class, like default.map, can also be loaded
+     * @param file the .map file
+     * @return the map stored in the file
+     */
+    static public Map loadMap(File file) throws IOException, ClassNotFoundException {
+        try(ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file)) {
+            @Override
+            protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+                ObjectStreamClass descriptor = super.readClassDescriptor();
+                if(descriptor.getName().equals(Map.class.getName()) && descriptor.getSerialVersionUID() == OLD_SERIAL_VERSION_UID){
+                    return ObjectStreamClass.lookup(Map.class);
+                }
+
+                return descriptor;
+            }
+        }) {
+            Map map = (Map) ois.readObject();
+            map.getGeometry();
+            return map;
+        }
+    }
+
+    /**
+     * Gets the lines of all the obstacles and their grid. It is built the first time it is needed,
+     * so the obstacles should not change after the simulation started.
+     * @return the geometry of the map
+     */
+    public MapGeometry getGeometry(){
+        MapGeometry mapGeometry = this.geometry;
+        if(mapGeometry == null){
+            synchronized (this){
+                mapGeometry = this.geometry;
+                if(mapGeometry == null){
+                    mapGeometry = new MapGeometry(this.obstacles);
+                    this.geometry = mapGeometry;
+                }
+            }
+        }
+
+        return mapGeometry;
+    }
+
     public Path2D.Double getShape(){
         Path2D.Double mapPath = new Path2D.Double();
 
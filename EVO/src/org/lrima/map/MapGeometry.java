@@ -0,0 +1,97 @@
+package org.lrima.map;
+
+import org.lrima.map.Studio.Drawables.Line;
+import org.lrima.map.Studio.Drawables.Obstacle;
+
+import java.util.List;
+
+/**
+ * The lines of all the obstacles of a map, stored in primitive arrays.
+ * The obstacles create new Line and Point objects every time their lines are asked,
+ * so the map is converted only once when it is loaded and the simulations use this form.
+ * It is never modified once built, so all the simulations of a map can share it.
+ */
+public class MapGeometry {
+    //x1, y1, x2, y2 of each segment
+    private final double[] endpoints;
+    private final int segmentCount;
+
+    private final SegmentGrid segmentGrid;
+    private final MapOutline outline;
+
+    /**
+     * Converts the obstacles into segments
+     * @param obstacles the obstacles of the map
+     */
+    public MapGeometry(List<Obstacle> obstacles){
+        int count = 0;
+        Line[][] lines = new Line[obstacles.size()][];
+        for(int i = 0 ; i < obstacles.size() ; i++){
+            lines[i] = obstacles.get(i).getLines().toArray(new Line[0]);
+            count += lines[i].length;
+        }
+
+        this.segmentCount = count;
+        this.endpoints = new double[count * 4];
+
+        int segment = 0;
+        for(Line[] obstacleLines : lines){
+            for(Line line : obstacleLines){
+                double x1 = line.getStart().x;
+                double y1 = line.getStart().y;
+                double x2 = line.getEnd().x;
+                double y2 = line.getEnd().y;
+
+                endpoints[segment * 4] = x1;
+                endpoints[segment * 4 + 1] = y1;
+                endpoints[segment * 4 + 2] = x2;
+                endpoints[segment * 4 + 3] = y2;
+
+                segment++;
+            }
+        }
+
+        this.segmentGrid = new SegmentGrid(endpoints, segmentCount);
+        this.outline = new MapOutline(lines);
+    }
+
+    /**
+     * Get the value of a sensor touching a segment.
+     * Gives the same value as {@link Line#getCapteurValue(org.lrima.espece.capteur.Capteur)}
+     *
+     * @param segment the index of the segment
+     * @return A number between 0 and 1 depending on the proximity of the point of collision. 1 if there is no collision
+     */
+    public double getCapteurValue(int segment, double capteurStartX, double capteurStartY, double capteurEndX, double capteurEndY){
+        return Line.getCapteurValue(getStartX(segment), getStartY(segment), getEndX(segment), getEndY(segment),
+                capteurStartX, capteurStartY, capteurEndX, capteurEndY);
+    }
+
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+
+    public double getStartX(int segment){
+        return endpoints[segment * 4];
+    }
+
+    public double getStartY(int segment){
+        return endpoints[segment * 4 + 1];
+    }
+
+    public double getEndX(int segment){
+        return endpoints[segment * 4 + 2];
+    }
+
+    public double getEndY(int segment){
+        return endpoints[segment * 4 + 3];
+    }
+
+    public SegmentGrid getSegmentGrid() {
+        return segmentGrid;
+    }
+
+    public MapOutline getOutline() {
+        return outline;
+    }
+}
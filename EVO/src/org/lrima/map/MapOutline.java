@@ -0,0 +1,421 @@
+package org.lrima.map;
+
+import org.lrima.map.Studio.Drawables.Line;
+
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * The path of the obstacles as built by {@link Map#getShape()}. The road is the inside of this path
+ * (non zero winding rule, every obstacle being closed from its last point to its first one).
+ * It tells if a car left the road by testing its corners against the edges near it,
+ * instead of building java.awt.geom.Area objects from the whole map.
+ * It is never modified once built, so it can be used by multiple threads at the same time.
+ */
+public class MapOutline {
+    //x1, y1, x2, y2 of each edge of the path
+    private final double[] edges;
+    private final int edgeCount;
+    private final SegmentGrid grid;
+    //How far from an edge the road is looked for on each side of it
+    private static final double SIDE_DISTANCE = 1e-4;
+
+    /**
+     * Builds the path the same way {@link Map#getShape()} does
+     * @param obstacleLines the lines of each obstacle
+     */
+    MapOutline(Line[][] obstacleLines){
+        int count = 0;
+        for(Line[] lines : obstacleLines){
+            if(lines.length > 0){
+                count += lines.length + 1;
+            }
+        }
+
+        this.edgeCount = count;
+        this.edges = new double[count * 4];
+
+        int edge = 0;
+        for(Line[] lines : obstacleLines){
+            if(lines.length == 0){
+                continue;
+            }
+
+            Point first = lines[0].getEnd();
+            Point previous = first;
+            for(Line line : lines){
+                edge = this.addEdge(edge, previous, line.getStart());
+                previous = line.getStart();
+            }
+            //The path is closed when it is filled
+            edge = this.addEdge(edge, previous, first);
+        }
+
+        this.grid = new SegmentGrid(edges, edgeCount);
+    }
+
+    private int addEdge(int edge, Point from, Point to){
+        edges[edge * 4] = from.x;
+        edges[edge * 4 + 1] = from.y;
+        edges[edge * 4 + 2] = to.x;
+        edges[edge * 4 + 3] = to.y;
+
+        return edge + 1;
+    }
+
+    /**
+     * Checks if a car left the road. Gives the same result as the old test with java.awt.geom.Area :
+     * a part of the car is outside of the road and the bounds of the part still inside are smaller than the car.
+     *
+     * @param topLeft the corners of the car, in order around the car
+     * @return true if the car should die
+     */
+    public boolean isOutside(Point topLeft, Point topRight, Point bottomRight, Point bottomLeft){
+        double[] carX = {topLeft.x, topRight.x, bottomRight.x, bottomLeft.x};
+        double[] carY = {topLeft.y, topRight.y, bottomRight.y, bottomLeft.y};
+
+        double carMinX = Math.min(Math.min(carX[0], carX[1]), Math.min(carX[2], carX[3]));
+        double carMinY = Math.min(Math.min(carY[0], carY[1]), Math.min(carY[2], carY[3]));
+        double carMaxX = Math.max(Math.max(carX[0], carX[1]), Math.max(carX[2], carX[3]));
+        double carMaxY = Math.max(Math.max(carY[0], carY[1]), Math.max(carY[2], carY[3]));
+
+        //1 if the corners are counter clockwise, -1 otherwise
+        double area = 0;
+        for(int k = 0 ; k < 4 ; k++){
+            area += carX[k] * carY[(k + 1) % 4] - carX[(k + 1) % 4] * carY[k];
+        }
+        double orientation = Math.signum(area);
+
+        //Bounds of the part of the car inside the road : minX, minY, maxX, maxY
+        double[] insideBounds = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        boolean edgeCrossesCar = false;
+
+        //Only the edges near the car can touch it
+        int fromColumn = grid.columnOf(carMinX), toColumn = grid.columnOf(carMaxX);
+        int fromRow = grid.rowOf(carMinY), toRow = grid.rowOf(carMaxY);
+        for(int row = fromRow ; row <= toRow ; row++){
+            for(int column = fromColumn ; column <= toColumn ; column++){
+                for(int i = grid.getCellStart(column, row) ; i < grid.getCellEnd(column, row) ; i++){
+                    int edge = grid.getCellSegment(i);
+                    double ax = edges[edge * 4], ay = edges[edge * 4 + 1];
+                    double bx = edges[edge * 4 + 2], by = edges[edge * 4 + 3];
+
+                    if((ax == bx && ay == by) || Math.max(ax, bx) < carMinX || Math.min(ax, bx) > carMaxX || Math.max(ay, by) < carMinY || Math.min(ay, by) > carMaxY){
+                        continue;
+                    }
+
+                    if(!edgeCrossesCar && crossesInside(ax, ay, bx, by, carX, carY, orientation)){
+                        edgeCrossesCar = true;
+                    }
+
+                    //The corners of the part inside the road are on the edges of the path
+                    if(contains(ax, ay, carX, carY, orientation)
+                            && this.touchesRoadInside(ax, ay, carX, carY, orientation, bx - ax, by - ay, this.previousEdgeDirectionX(edge), this.previousEdgeDirectionY(edge))){
+                        include(insideBounds, ax, ay);
+                    }
+                    if(contains(bx, by, carX, carY, orientation)
+                            && this.touchesRoadInside(bx, by, carX, carY, orientation, bx - ax, by - ay, this.nextEdgeDirectionX(edge), this.nextEdgeDirectionY(edge))){
+                        include(insideBounds, bx, by);
+                    }
+                    this.includeIntersections(insideBounds, ax, ay, bx, by, carX, carY, orientation);
+                }
+            }
+        }
+
+        //If no edge crosses the car, it is either completely on the road or completely outside
+        if(!edgeCrossesCar && winding((carX[0] + carX[2]) / 2, (carY[0] + carY[2]) / 2) != 0){
+            return false;
+        }
+
+        for(int k = 0 ; k < 4 ; k++){
+            if(this.touchesRoadInside(carX[k], carY[k], carX, carY, orientation)){
+                include(insideBounds, carX[k], carY[k]);
+            }
+        }
+
+        //Nothing of the car is on the road
+        if(insideBounds[0] > insideBounds[2]){
+            return true;
+        }
+
+        //Same rounding as Rectangle2D.getBounds()
+        boolean sameBounds = Math.floor(insideBounds[0]) == carMinX && Math.floor(insideBounds[1]) == carMinY
+                && Math.ceil(insideBounds[2]) == carMaxX && Math.ceil(insideBounds[3]) == carMaxY;
+
+        return !sameBounds;
+    }
+
+    /**
+     * Checks if an edge separates the road from the outside at a point.
+     * Where the path turns twice around a point, like inside two obstacles drawn in the same direction,
+     * the road is on both sides of the edges between them and Area ignores these edges.
+     * @param t the position of the point on the edge, from 0 at (ax, ay) to 1 at (bx, by)
+     */
+    private boolean isBorder(double ax, double ay, double bx, double by, double t){
+        double x = ax + t * (bx - ax);
+        double y = ay + t * (by - ay);
+        double length = Math.hypot(bx - ax, by - ay);
+        double normalX = -(by - ay) / length * SIDE_DISTANCE;
+        double normalY = (bx - ax) / length * SIDE_DISTANCE;
+
+        return (winding(x + normalX, y + normalY) == 0) != (winding(x - normalX, y - normalY) == 0);
+    }
+
+    /**
+     * Checks if the road and the car share an area next to a point. Area drops the parts of the road
+     * that only touch the car at a point or along a line, like a corner of the car on a border.
+     *
+     * The sides of the car and the edges going through the point split the space around it in parts
+     * that are either all on the road or all outside, so the road is looked for in the middle of each part.
+     * @param edgeDirections the x and y of the direction of every edge going through the point
+     */
+    private boolean touchesRoadInside(double x, double y, double[] carX, double[] carY, double orientation, double... edgeDirections){
+        double[] angles = new double[(4 + edgeDirections.length / 2) * 2];
+        int numberOfAngles = 0;
+        for(int k = 0 ; k < 4 ; k++){
+            double angle = Math.atan2(carY[(k + 1) % 4] - carY[k], carX[(k + 1) % 4] - carX[k]);
+            angles[numberOfAngles++] = angle;
+            angles[numberOfAngles++] = angle + Math.PI;
+        }
+        for(int i = 0 ; i + 1 < edgeDirections.length ; i += 2){
+            if(edgeDirections[i] != 0 || edgeDirections[i + 1] != 0){
+                double angle = Math.atan2(edgeDirections[i + 1], edgeDirections[i]);
+                angles[numberOfAngles++] = angle;
+                angles[numberOfAngles++] = angle + Math.PI;
+            }
+        }
+        for(int i = 0 ; i < numberOfAngles ; i++){
+            angles[i] = (angles[i] % (2 * Math.PI) + 2 * Math.PI) % (2 * Math.PI);
+        }
+        Arrays.sort(angles, 0, numberOfAngles);
+
+        for(int i = 0 ; i < numberOfAngles ; i++){
+            double next = i + 1 < numberOfAngles ? angles[i + 1] : angles[0] + 2 * Math.PI;
+            if(next - angles[i] <= 0){
+                continue;
+            }
+            double angle = (angles[i] + next) / 2;
+            double sampleX = x + SIDE_DISTANCE * Math.cos(angle);
+            double sampleY = y + SIDE_DISTANCE * Math.sin(angle);
+
+            if(isStrictlyInside(sampleX, sampleY, carX, carY, orientation) && winding(sampleX, sampleY) != 0){
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return the x of the direction of the edge ending where this edge starts, 0 if this edge starts an obstacle
+     */
+    private double previousEdgeDirectionX(int edge){
+        return this.continues(edge - 1, edge) ? edges[(edge - 1) * 4 + 2] - edges[(edge - 1) * 4] : 0;
+    }
+
+    private double previousEdgeDirectionY(int edge){
+        return this.continues(edge - 1, edge) ? edges[(edge - 1) * 4 + 3] - edges[(edge - 1) * 4 + 1] : 0;
+    }
+
+    /**
+     * @return the x of the direction of the edge starting where this edge ends, 0 if this edge ends an obstacle
+     */
+    private double nextEdgeDirectionX(int edge){
+        return this.continues(edge, edge + 1) ? edges[(edge + 1) * 4 + 2] - edges[(edge + 1) * 4] : 0;
+    }
+
+    private double nextEdgeDirectionY(int edge){
+        return this.continues(edge, edge + 1) ? edges[(edge + 1) * 4 + 3] - edges[(edge + 1) * 4 + 1] : 0;
+    }
+
+    /**
+     * @return true if the second edge starts where the first one ends
+     */
+    private boolean continues(int first, int second){
+        return first >= 0 && second < edgeCount
+                && edges[first * 4 + 2] == edges[second * 4] && edges[first * 4 + 3] == edges[second * 4 + 1];
+    }
+
+    /**
+     * Counts how many times the path turns around a point
+     * @return 0 if the point is outside the road
+     */
+    private int winding(double x, double y){
+        //The path is entirely inside the grid
+        if(!grid.contains(x, y)){
+            return 0;
+        }
+
+        int winding = 0;
+        int row = grid.rowOf(y);
+        for(int column = grid.columnOf(x) ; column < grid.getColumns() ; column++){
+            for(int i = grid.getCellStart(column, row) ; i < grid.getCellEnd(column, row) ; i++){
+                int edge = grid.getCellSegment(i);
+                double ax = edges[edge * 4], ay = edges[edge * 4 + 1];
+                double bx = edges[edge * 4 + 2], by = edges[edge * 4 + 3];
+
+                if((ay <= y) != (by <= y)){
+                    double crossX = ax + (y - ay) * (bx - ax) / (by - ay);
+                    //An edge is in many cells, it is only counted in the cell where it crosses the ray
+                    if(crossX > x && grid.columnOf(crossX) == column){
+                        winding += by > ay ? 1 : -1;
+                    }
+                }
+            }
+        }
+
+        return winding;
+    }
+
+    /**
+     * Checks if a segment goes through the inside of the car. Touching its border doesn't count.
+     */
+    private static boolean crossesInside(double ax, double ay, double bx, double by, double[] carX, double[] carY, double orientation){
+        double enter = 0, exit = 1;
+        for(int k = 0 ; k < 4 ; k++){
+            double sideA = side(ax, ay, k, carX, carY, orientation);
+            double sideB = side(bx, by, k, carX, carY, orientation);
+
+            if(sideA <= 0 && sideB <= 0){
+                return false;
+            }
+            if(sideA < 0){
+                enter = Math.max(enter, sideA / (sideA - sideB));
+            }
+            else if(sideB < 0){
+                exit = Math.min(exit, sideA / (sideA - sideB));
+            }
+        }
+
+        return enter < exit;
+    }
+
+    /**
+     * Checks if a point is inside the car or on its border
+     */
+    private static boolean contains(double x, double y, double[] carX, double[] carY, double orientation){
+        for(int k = 0 ; k < 4 ; k++){
+            if(side(x, y, k, carX, carY, orientation) < 0){
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks if a point is inside the car and not on its border
+     */
+    private static boolean isStrictlyInside(double x, double y, double[] carX, double[] carY, double orientation){
+        for(int k = 0 ; k < 4 ; k++){
+            if(side(x, y, k, carX, carY, orientation) <= 0){
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return positive if the point is on the inner side of the side k of the car, 0 if it is on it
+     */
+    private static double side(double x, double y, int k, double[] carX, double[] carY, double orientation){
+        int next = (k + 1) % 4;
+        return orientation * ((carX[next] - carX[k]) * (y - carY[k]) - (carY[next] - carY[k]) * (x - carX[k]));
+    }
+
+    /**
+     * Adds the points where a segment touches the sides of the car to the bounds.
+     * The points are computed like java.awt.geom.Area does, so the bounds are rounded the same way.
+     */
+    private void includeIntersections(double[] bounds, double ax, double ay, double bx, double by, double[] carX, double[] carY, double orientation){
+        double rx = bx - ax, ry = by - ay;
+        for(int k = 0 ; k < 4 ; k++){
+            int next = (k + 1) % 4;
+            double cx = carX[k], cy = carY[k], dx = carX[next], dy = carY[next];
+            double qx = dx - cx, qy = dy - cy;
+            double wx = cx - ax, wy = cy - ay;
+            double denominator = rx * qy - ry * qx;
+
+            if(denominator != 0){
+                double t = (wx * qy - wy * qx) / denominator;
+                double u = (wx * ry - wy * rx) / denominator;
+                if(t >= 0 && t <= 1 && u >= 0 && u <= 1 && this.isBorder(ax, ay, bx, by, t)
+                        && this.touchesRoadInside(ax + t * rx, ay + t * ry, carX, carY, orientation, rx, ry)){
+                    //Area ignores the horizontal lines, the other line is cut at their height
+                    if(ry == 0){
+                        include(bounds, xForY(cx, cy, dx, dy, ay), ay);
+                    }
+                    else if(qy == 0){
+                        include(bounds, xForY(ax, ay, bx, by, cy), cy);
+                    }
+                    else{
+                        double y = intersectionY(ax, ay, bx, by, cx, cy, dx, dy);
+                        include(bounds, xForY(ax, ay, bx, by, y), y);
+                        include(bounds, xForY(cx, cy, dx, dy, y), y);
+                    }
+                }
+            }
+            else if(wx * ry - wy * rx == 0){
+                //Segment along the side of the car
+                this.includeIfOnBorder(bounds, carX[k], carY[k], ax, ay, bx, by, carX, carY, orientation);
+                this.includeIfOnBorder(bounds, carX[next], carY[next], ax, ay, bx, by, carX, carY, orientation);
+            }
+        }
+    }
+
+    /**
+     * Adds a point aligned with a segment to the bounds if it is between its ends and on the border of the road
+     */
+    private void includeIfOnBorder(double[] bounds, double x, double y, double ax, double ay, double bx, double by, double[] carX, double[] carY, double orientation){
+        double rx = bx - ax, ry = by - ay;
+        double t = ((x - ax) * rx + (y - ay) * ry) / (rx * rx + ry * ry);
+        if(t >= 0 && t <= 1 && this.isBorder(ax, ay, bx, by, t) && this.touchesRoadInside(x, y, carX, carY, orientation, rx, ry)){
+            include(bounds, x, y);
+        }
+    }
+
+    /**
+     * The height where two lines cross, computed like sun.awt.geom.Order1
+     */
+    private static double intersectionY(double ax, double ay, double bx, double by, double cx, double cy, double dx, double dy){
+        //Both lines go from top to bottom
+        double x0a = ay <= by ? ax : bx, y0a = Math.min(ay, by);
+        double dxa = (ay <= by ? bx : ax) - x0a, dya = Math.max(ay, by) - y0a;
+        double x0b = cy <= dy ? cx : dx, y0b = Math.min(cy, dy);
+        double dxb = (cy <= dy ? dx : cx) - x0b, dyb = Math.max(cy, dy) - y0b;
+
+        double denominator = dxb * dya - dxa * dyb;
+        double numerator = (x0a - x0b) * dya * dyb - y0a * dxa * dyb + y0b * dxb * dya;
+
+        return numerator / denominator;
+    }
+
+    /**
+     * The x of a line at a given height, computed like sun.awt.geom.Order1
+     */
+    private static double xForY(double ax, double ay, double bx, double by, double y){
+        double x0 = ay <= by ? ax : bx, y0 = Math.min(ay, by);
+        double x1 = ay <= by ? bx : ax, y1 = Math.max(ay, by);
+
+        if(x0 == x1 || y <= y0){
+            return x0;
+        }
+        if(y >= y1){
+            return x1;
+        }
+
+        return x0 + (y - y0) * (x1 - x0) / (y1 - y0);
+    }
+
+    private static void include(double[] bounds, double x, double y){
+        bounds[0] = Math.min(bounds[0], x);
+        bounds[1] = Math.min(bounds[1], y);
+        bounds[2] = Math.max(bounds[2], x);
+        bounds[3] = Math.max(bounds[3], y);
+    }
+
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+}
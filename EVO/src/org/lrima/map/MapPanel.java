@@ -12,8 +12,6 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
-import java.util.Timer;
-import java.util.TimerTask;
 
 import javax.imageio.ImageIO;
 import javax.swing.JPanel;
@@ -59,13 +57,15 @@ public class MapPanel extends JPanel implements MouseMotionListener, MouseListen
 	private final int TEXT_MARGIN = 20;
 	private final int FONT_SIZE = 32;
 
-	private Timer uploadCheckerTimer;
-
 	private SimulationManager simulationManager;
 	private FrameManager frameManager;
 
 	private double translateX, translateY;
 
+	//The background and the obstacles as they are on the screen. They are drawn again only when the view or the map changes
+	private BufferedImage staticLayer;
+	private AffineTransform staticLayerTransform;
+
 
 	/**
 	 * Creates an panel to display the map in it's current state
@@ -108,21 +108,6 @@ public class MapPanel extends JPanel implements MouseMotionListener, MouseListen
 		this.simulationManager = frameManager.getSimulationManager();
 	}
 
-	/**
-	 * Used to constantly repaint the map
-	 */
-	public void start() {
-		uploadCheckerTimer = new Timer(false);
-		uploadCheckerTimer.scheduleAtFixedRate(
-				new TimerTask() {
-					public void run() { repaint(); }
-				}, 0, 16);
-	}
-
-	public void stop(){
-		uploadCheckerTimer.cancel();
-	}
-
 	@Override
 	public void paintComponent(Graphics g) {
 		Graphics2D graphics = (Graphics2D) g;
@@ -155,8 +140,7 @@ public class MapPanel extends JPanel implements MouseMotionListener, MouseListen
 	 * @param graphics to be drawn on
 	 */
 	protected void setupRelativeGraphics(Graphics2D graphics){
-		drawBackground(graphics);
-		drawObstacles(graphics);
+		drawStaticLayer(graphics);
 		drawPoints(graphics);
 		drawCars(graphics);
 
@@ -173,7 +157,7 @@ public class MapPanel extends JPanel implements MouseMotionListener, MouseListen
 	 */
 	protected void doTransforms(Graphics2D graphics){
 		/*if(UserPrefs.getBoolean(UserPrefs.KEY_FOLLOW_BEST)){
-			Espece bestEspece = simulationManager.getCurrentSimulation().getBest();
+			Espece bestEspece = simulationManager.getCurrentSimulation().getBestEspece();
 			translateX = (int) -bestEspece.getX() + getWidth() / 2;
 			translateY = (int) -bestEspece.getY() + getHeight() / 2;
 
@@ -192,6 +176,45 @@ public class MapPanel extends JPanel implements MouseMotionListener, MouseListen
 		graphics.translate(translateX, translateY);
 	}
 
+	/**
+	 * Draws the background and the obstacles from an image drawn only when the zoom, the position of the view,
+	 * the size of the panel or the map changes
+	 * @param graphics the graphics with the zoom and translations applied
+	 */
+	protected void drawStaticLayer(Graphics2D graphics){
+		AffineTransform transform = graphics.getTransform();
+		int width = Math.max(1, getWidth());
+		int height = Math.max(1, getHeight());
+
+		if(staticLayer == null || staticLayer.getWidth() != width || staticLayer.getHeight() != height || !transform.equals(staticLayerTransform)){
+			if(staticLayer == null || staticLayer.getWidth() != width || staticLayer.getHeight() != height) {
+				staticLayer = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+			}
+			staticLayerTransform = transform;
+
+			Graphics2D layerGraphics = staticLayer.createGraphics();
+			//What is around the map, painted by super.paintComponent
+			layerGraphics.setColor(getBackground());
+			layerGraphics.fillRect(0, 0, width, height);
+
+			layerGraphics.setTransform(transform);
+			drawBackground(layerGraphics);
+			drawObstacles(layerGraphics);
+			layerGraphics.dispose();
+		}
+
+		graphics.setTransform(new AffineTransform());
+		graphics.drawImage(staticLayer, 0, 0, null);
+		graphics.setTransform(transform);
+	}
+
+	/**
+	 * Forces the background and the obstacles to be drawn again at the next repaint. Call it when the map is edited
+	 */
+	protected void invalidateStaticLayer(){
+		staticLayerTransform = null;
+	}
+
 	/**
 	 * Draws the background of the map and the lines
 	 * @param graphics the graphics to put a map into
@@ -236,10 +259,7 @@ public class MapPanel extends JPanel implements MouseMotionListener, MouseListen
 	 * @param graphics the graphics to put the cars into
 	 */
 	protected void drawCars(Graphics2D graphics){
-		graphics.setColor(Color.blue);
-		for(Espece e : this.simulationManager.getCurrentSimulation().getAllEspeces()) {
-			e.draw(graphics);
-		}
+		this.simulationManager.getCurrentSimulation().getRenderSnapshot().draw(graphics);
 	}
 
 	/**
@@ -287,19 +307,13 @@ public class MapPanel extends JPanel implements MouseMotionListener, MouseListen
 
 		Point pointClickedOnMap = mapPointFromScreenPoint(e.getPoint());
 
-		Espece selected = simulationManager.getCurrentSimulation().getAllEspeces().get(0);
-		int proche = selected.distanceFrom(pointClickedOnMap);
-		for(Espece espece : simulationManager.getCurrentSimulation().getAllEspeces()) {
-			//Reset selected
-			espece.selected = false;
-
-			if(proche >= espece.distanceFrom(pointClickedOnMap)) {
-				proche = espece.distanceFrom(pointClickedOnMap);
-				selected = espece;
-			}
-
+		//The cars as they are on the screen
+		Espece selected = simulationManager.getCurrentSimulation().getRenderSnapshot().getEspeceNear(pointClickedOnMap);
+		if(selected == null){
+			return;
 		}
-		selected.setSelected(true);
+
+		//Also deselects the other cars
 		frameManager.changeCarFocus(selected);
 
 	}
@@ -328,8 +342,8 @@ public class MapPanel extends JPanel implements MouseMotionListener, MouseListen
 		zoom /= Math.exp(delta);
 
 		//Allow a maximum ammount of zoom
-		if (zoom <= 0.2) {
-			zoom = 0.2f;
+		if (zoom <= 0.02) {
+			zoom = 0.02f;
 		}
 		if (zoom >= 2.5) {
 			zoom = 2.5f;
@@ -363,6 +377,7 @@ public class MapPanel extends JPanel implements MouseMotionListener, MouseListen
 
 	public void setMap(Map map){
 		this.map = map;
+		this.invalidateStaticLayer();
 		this.repaint();
 	}
 
@@ -0,0 +1,296 @@
+package org.lrima.map;
+
+import org.lrima.espece.capteur.Capteur;
+import org.lrima.map.Studio.Drawables.Line;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+
+/**
+ * Uniform grid over segments of a map.
+ * Each cell knows the segments passing near it, so a sensor only has to be tested
+ * against the segments of the cells its ray crosses instead of all the segments of the map.
+ * The grid is never modified once built, so it can be used by multiple threads at the same time.
+ */
+public class SegmentGrid {
+    //A segment is added to every cell within this distance, so rays touching a cell border don't miss it
+    private static final double MARGIN = 1.0;
+    //Limits the number of cells of maps with a lot of small segments
+    private static final int MAX_CELLS_PER_SIDE = 256;
+
+    //x1, y1, x2, y2 of each segment
+    private final double[] endpoints;
+
+    private final double originX, originY;
+    private final double maxX, maxY;
+    private final double cellSize;
+    private final int columns, rows;
+
+    //The segments of cell c are cellSegments[cellStart[c]] to cellSegments[cellStart[c + 1] - 1]
+    private final int[] cellStart;
+    private final int[] cellSegments;
+
+    /**
+     * Builds the grid. The cell size is the average length of the segments.
+     * @param endpoints x1, y1, x2, y2 of each segment. The array is kept, not copied
+     * @param segmentCount the number of segments in the array
+     */
+    public SegmentGrid(double[] endpoints, int segmentCount){
+        this.endpoints = endpoints;
+
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        double totalLength = 0;
+        for(int i = 0 ; i < segmentCount ; i++){
+            minX = Math.min(minX, Math.min(x1(i), x2(i)));
+            minY = Math.min(minY, Math.min(y1(i), y2(i)));
+            maxX = Math.max(maxX, Math.max(x1(i), x2(i)));
+            maxY = Math.max(maxY, Math.max(y1(i), y2(i)));
+            totalLength += Math.hypot(x2(i) - x1(i), y2(i) - y1(i));
+        }
+
+        if(segmentCount == 0){
+            minX = minY = maxX = maxY = 0;
+        }
+
+        this.originX = minX - MARGIN;
+        this.originY = minY - MARGIN;
+        this.maxX = maxX + MARGIN;
+        this.maxY = maxY + MARGIN;
+
+        double width = this.maxX - this.originX;
+        double height = this.maxY - this.originY;
+        double averageLength = segmentCount == 0 || totalLength == 0 ? Capteur.CAPTEUR_LENGHT : totalLength / segmentCount;
+        this.cellSize = Math.max(averageLength, Math.max(width, height) / MAX_CELLS_PER_SIDE);
+
+        this.columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+
+        //Find the cells of each segment
+        ArrayList<ArrayList<Integer>> cells = new ArrayList<>(columns * rows);
+        for(int i = 0 ; i < columns * rows ; i++){
+            cells.add(new ArrayList<>());
+        }
+
+        for(int i = 0 ; i < segmentCount ; i++){
+            int fromColumn = this.columnOf(Math.min(x1(i), x2(i)) - MARGIN);
+            int toColumn = this.columnOf(Math.max(x1(i), x2(i)) + MARGIN);
+            int fromRow = this.rowOf(Math.min(y1(i), y2(i)) - MARGIN);
+            int toRow = this.rowOf(Math.max(y1(i), y2(i)) + MARGIN);
+
+            for(int row = fromRow ; row <= toRow ; row++){
+                for(int column = fromColumn ; column <= toColumn ; column++){
+                    if(this.segmentTouchesCell(i, column, row)) {
+                        cells.get(row * columns + column).add(i);
+                    }
+                }
+            }
+        }
+
+        //Flatten the cells
+        this.cellStart = new int[columns * rows + 1];
+        int numberOfEntries = 0;
+        for(int i = 0 ; i < cells.size() ; i++){
+            cellStart[i] = numberOfEntries;
+            numberOfEntries += cells.get(i).size();
+        }
+        cellStart[cells.size()] = numberOfEntries;
+
+        this.cellSegments = new int[numberOfEntries];
+        for(int i = 0 ; i < cells.size() ; i++){
+            int index = cellStart[i];
+            for(int segment : cells.get(i)){
+                cellSegments[index++] = segment;
+            }
+        }
+    }
+
+    /**
+     * Checks if a segment passes within MARGIN of a cell
+     */
+    private boolean segmentTouchesCell(int segment, int column, int row){
+        double left = originX + column * cellSize - MARGIN;
+        double top = originY + row * cellSize - MARGIN;
+
+        return clip(x1(segment), y1(segment), x2(segment), y2(segment),
+                left, top, left + cellSize + 2 * MARGIN, top + cellSize + 2 * MARGIN) != null;
+    }
+
+    /**
+     * Gets the value of a sensor. It gives the same value as testing the sensor against
+     * every segment of the grid with {@link Line#getCapteurValue(Capteur)}, but only tests
+     * the segments of the cells crossed by the sensor.
+     *
+     * @param capteur the sensor
+     * @return the lowest value of the sensor, 1 if it doesn't touch anything
+     */
+    public double getCapteurValue(Capteur capteur){
+        Point2D.Double point1 = capteur.getPoint1();
+        Point2D.Double point2 = capteur.getPoint2();
+
+        return this.getCapteurValue(point1.x, point1.y, point2.x, point2.y);
+    }
+
+    /**
+     * Gets the value of a sensor going from (x1, y1) to (x2, y2), see {@link #getCapteurValue(Capteur)}
+     *
+     * @return the lowest value of the sensor, 1 if it doesn't touch anything
+     */
+    public double getCapteurValue(double x1, double y1, double x2, double y2){
+        double value = 1.0;
+
+        //Only the part of the sensor inside the grid can touch a segment
+        double[] clipped = clip(x1, y1, x2, y2, originX, originY, maxX, maxY);
+        if(clipped == null){
+            return value;
+        }
+        double startT = clipped[0];
+        double endT = clipped[1];
+
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+
+        int column = this.columnOf(x1 + dx * startT);
+        int row = this.rowOf(y1 + dy * startT);
+        int endColumn = this.columnOf(x1 + dx * endT);
+        int endRow = this.rowOf(y1 + dy * endT);
+
+        //Walk the cells crossed by the sensor (Amanatides & Woo)
+        int stepX = dx > 0 ? 1 : (dx < 0 ? -1 : 0);
+        int stepY = dy > 0 ? 1 : (dy < 0 ? -1 : 0);
+        double tDeltaX = stepX != 0 ? cellSize / Math.abs(dx) : Double.POSITIVE_INFINITY;
+        double tDeltaY = stepY != 0 ? cellSize / Math.abs(dy) : Double.POSITIVE_INFINITY;
+        double tMaxX = stepX > 0 ? (originX + (column + 1) * cellSize - x1) / dx
+                : stepX < 0 ? (originX + column * cellSize - x1) / dx : Double.POSITIVE_INFINITY;
+        double tMaxY = stepY > 0 ? (originY + (row + 1) * cellSize - y1) / dy
+                : stepY < 0 ? (originY + row * cellSize - y1) / dy : Double.POSITIVE_INFINITY;
+
+        while(column >= 0 && column < columns && row >= 0 && row < rows){
+            int cell = row * columns + column;
+            for(int i = cellStart[cell] ; i < cellStart[cell + 1] ; i++){
+                int segment = cellSegments[i];
+                double capteurValue = Line.getCapteurValue(x1(segment), y1(segment), x2(segment), y2(segment), x1, y1, x2, y2);
+                if(capteurValue <= value){
+                    value = capteurValue;
+                }
+            }
+
+            if((column == endColumn && row == endRow) || Math.min(tMaxX, tMaxY) > endT){
+                break;
+            }
+
+            if(tMaxX < tMaxY){
+                tMaxX += tDeltaX;
+                column += stepX;
+            }
+            else{
+                tMaxY += tDeltaY;
+                row += stepY;
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * Clips a segment to a rectangle (Liang-Barsky)
+     * @return the parameters [tStart, tEnd] of the part of the segment inside the rectangle, null if it is outside
+     */
+    private static double[] clip(double x1, double y1, double x2, double y2, double left, double top, double right, double bottom){
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double[] p = {-dx, dx, -dy, dy};
+        double[] q = {x1 - left, right - x1, y1 - top, bottom - y1};
+
+        double tStart = 0.0;
+        double tEnd = 1.0;
+        for(int i = 0 ; i < 4 ; i++){
+            if(p[i] == 0){
+                if(q[i] < 0){
+                    return null;
+                }
+            }
+            else{
+                double t = q[i] / p[i];
+                if(p[i] < 0){
+                    tStart = Math.max(tStart, t);
+                }
+                else{
+                    tEnd = Math.min(tEnd, t);
+                }
+            }
+        }
+
+        return tStart <= tEnd ? new double[]{tStart, tEnd} : null;
+    }
+
+    /**
+     * @return the column of the cell containing x, clamped to the grid
+     */
+    int columnOf(double x){
+        return Math.min(columns - 1, Math.max(0, (int) Math.floor((x - originX) / cellSize)));
+    }
+
+    /**
+     * @return the row of the cell containing y, clamped to the grid
+     */
+    int rowOf(double y){
+        return Math.min(rows - 1, Math.max(0, (int) Math.floor((y - originY) / cellSize)));
+    }
+
+    /**
+     * @return true if the point is inside the area covered by the grid
+     */
+    boolean contains(double x, double y){
+        return x >= originX && x <= maxX && y >= originY && y <= maxY;
+    }
+
+    /**
+     * @return the position in {@link #getCellSegment(int)} of the first segment of the cell
+     */
+    int getCellStart(int column, int row){
+        return cellStart[row * columns + column];
+    }
+
+    /**
+     * @return the position in {@link #getCellSegment(int)} after the last segment of the cell
+     */
+    int getCellEnd(int column, int row){
+        return cellStart[row * columns + column + 1];
+    }
+
+    /**
+     * @return the index of the segment stored at this position of the cells
+     */
+    int getCellSegment(int position){
+        return cellSegments[position];
+    }
+
+    private double x1(int segment){
+        return endpoints[segment * 4];
+    }
+
+    private double y1(int segment){
+        return endpoints[segment * 4 + 1];
+    }
+
+    private double x2(int segment){
+        return endpoints[segment * 4 + 2];
+    }
+
+    private double y2(int segment){
+        return endpoints[segment * 4 + 3];
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public double getCellSize() {
+        return cellSize;
+    }
+}
@@ -13,6 +13,9 @@ import java.io.Serializable;
  *
  */
 public class Line implements Serializable {
+    //Keeps the saved .map files readable when this class changes
+    private static final long serialVersionUID = 3192346335076795501L;
+
     private Point start, end;
 
     /**
@@ -65,21 +68,26 @@ public class Line implements Serializable {
      * @return true if they are colliding, false otherwise
      */
     private boolean isCollideWith(Point.Double start2, Point.Double end2){
-        double denominator = ((end.x - start.x) * (end2.y - start2.y)) - ((end.y - start.y) * (end2.x - start2.x));
-        double numerator1 = ((start.y - start2.y) * (end2.x - start2.x)) - ((start.x - start2.x) * (end2.y - start2.y));
-        double numerator2 = ((start.y - start2.y) * (end.x - start.x)) - ((start.x - start2.x) * (end.y - start.y));
+        return isCollide(start.x, start.y, end.x, end.y, start2.x, start2.y, end2.x, end2.y);
+    }
+
+    /**
+     * Checks collision between the line from (startX, startY) to (endX, endY) and the line from
+     * (start2X, start2Y) to (end2X, end2Y). Two parallel lines collide only if they are on the same straight line.
+     *
+     * @return true if they are colliding, false otherwise
+     */
+    private static boolean isCollide(double startX, double startY, double endX, double endY,
+                                     double start2X, double start2Y, double end2X, double end2Y){
+        double denominator = ((endX - startX) * (end2Y - start2Y)) - ((endY - startY) * (end2X - start2X));
+        double numerator1 = ((startY - start2Y) * (end2X - start2X)) - ((startX - start2X) * (end2Y - start2Y));
+        double numerator2 = ((startY - start2Y) * (endX - startX)) - ((startX - start2X) * (endY - startY));
 
         if(denominator == 0){
             return (numerator1 == 0 && numerator2 == 0);
         }
 
-        double r = numerator1 / denominator;
-        double s = numerator2 / denominator;
-
-
-        return(Line2D.linesIntersect(start.x, start.y, end.x, end.y, start2.x, start2.y, end2.x, end2.y));
-
-        //return((r >= 0 && r <= 1) && (s >= 0 && s <= 1));
+        return(Line2D.linesIntersect(startX, startY, endX, endY, start2X, start2Y, end2X, end2Y));
     }
 
     /**
@@ -94,16 +102,6 @@ public class Line implements Serializable {
     }
 
 
-    /**
-     * Checks collision with a Capteur
-     *
-     * @param capteur the capteur to check the collision with
-     * @return true if they are colliding, false otherwise
-     */
-    private boolean isCollideWith(Capteur capteur){
-        return isCollideWith(capteur.getPoint1(), capteur.getPoint2());
-    }
-
     /**
      * Get the value of the Capteur.
      *
@@ -114,43 +112,52 @@ public class Line implements Serializable {
         Point.Double capteurStart  = c.getPoint1();
         Point.Double capteurEnd = c.getPoint2();
 
+        return getCapteurValue(start.x, start.y, end.x, end.y, capteurStart.x, capteurStart.y, capteurEnd.x, capteurEnd.y);
+    }
+
+    /**
+     * Get the value of a Capteur touching the line between (startX, startY) and (endX, endY).
+     * Same as {@link #getCapteurValue(Capteur)}, but it doesn't need any Line or Point object.
+     *
+     * @return A number between 0 and 1 depending on the proximity of the point of collision. 1 if there is no collision
+     */
+    public static double getCapteurValue(double startX, double startY, double endX, double endY,
+                                         double capteurStartX, double capteurStartY, double capteurEndX, double capteurEndY){
         //Si collision
-        if(isCollideWith(c)){
+        if(isCollide(startX, startY, endX, endY, capteurStartX, capteurStartY, capteurEndX, capteurEndY)){
 
-            float tauxVariationLigne = ((float)end.y - (float)start.y) / ((float)end.x - (float)start.x);
-            float ordonneeLigne = (float)end.y - (tauxVariationLigne * (float)end.x);
+            float tauxVariationLigne = ((float)endY - (float)startY) / ((float)endX - (float)startX);
+            float ordonneeLigne = (float)endY - (tauxVariationLigne * (float)endX);
 
-            if(capteurEnd.x == capteurStart.x){
+            if(capteurEndX == capteurStartX){
                 //Si le capteur est 90 degrees
-                double collisionY = tauxVariationLigne * capteurEnd.x + ordonneeLigne;
-                return collisionY / capteurEnd.y;
+                double collisionY = tauxVariationLigne * capteurEndX + ordonneeLigne;
+                return collisionY / capteurEndY;
             }
 
-            double tauxVariationCapteur = ((capteurEnd.y - capteurStart.y) / (capteurEnd.x - capteurStart.x));
-            double ordonneeCapteur = capteurStart.y - (tauxVariationCapteur * capteurStart.x);
+            double tauxVariationCapteur = ((capteurEndY - capteurStartY) / (capteurEndX - capteurStartX));
+            double ordonneeCapteur = capteurStartY - (tauxVariationCapteur * capteurStartX);
 
             double xCollide = (ordonneeLigne - ordonneeCapteur) / (tauxVariationCapteur - tauxVariationLigne);
             double yCollide = tauxVariationLigne * xCollide + ordonneeLigne;
 
             //Vertical line
-            if(start.x == end.x){
-                xCollide = start.x;
-                yCollide = tauxVariationCapteur * start.x + ordonneeCapteur;
+            if(startX == endX){
+                xCollide = startX;
+                yCollide = tauxVariationCapteur * startX + ordonneeCapteur;
             }
 
             //Horizontal line
-            if(start.y == end.y){
-                xCollide = (start.y - ordonneeCapteur) / tauxVariationCapteur;
-                yCollide = start.y;
+            if(startY == endY){
+                xCollide = (startY - ordonneeCapteur) / tauxVariationCapteur;
+                yCollide = startY;
             }
 
-            Point.Double pointDeCollision = new Point.Double(xCollide, yCollide);
-
             //Calcule de la valeur du capteur
             double longueurMax = Capteur.CAPTEUR_LENGHT;
 
-            double xCollideFromCar = xCollide - c.getPoint1().x;
-            double yCollideFromCar = yCollide - c.getPoint1().y;
+            double xCollideFromCar = xCollide - capteurStartX;
+            double yCollideFromCar = yCollide - capteurStartY;
 
             double longueurCollision = Math.sqrt(Math.pow(xCollideFromCar, 2) + Math.pow(yCollideFromCar, 2));
 
@@ -83,9 +83,8 @@ public class DrawingPanel extends MapPanel implements PopupMenuListener {
 
     @Override
     public void setupRelativeGraphics(Graphics2D g) {
-        this.drawBackground(g);
+        this.drawStaticLayer(g);
         this.drawPoints(g);
-        this.drawObstacles(g);
         this.drawStart(g);
 
         g.setColor(Color.blue);
@@ -123,6 +122,8 @@ public class DrawingPanel extends MapPanel implements PopupMenuListener {
     public void mouseClicked(MouseEvent e) {
         currentTool.onMouseClick(e, this, mapPointFromScreenPoint(e.getPoint()));
 
+        //The tools edit the obstacles of the map
+        this.invalidateStaticLayer();
         this.repaint();
     }
 
@@ -178,6 +179,7 @@ public class DrawingPanel extends MapPanel implements PopupMenuListener {
     public void mousePressed(MouseEvent e) {
         super.mousePressed(e);
         this.currentTool.onMousePressed(e, mousePosition);
+        this.invalidateStaticLayer();
     }
 
     @Override
@@ -190,6 +192,9 @@ public class DrawingPanel extends MapPanel implements PopupMenuListener {
         if(!currentTool.onDrag(e, mapPointFromScreenPoint(e.getPoint()))){
             super.mouseDragged(e);
         }
+        else{
+            this.invalidateStaticLayer();
+        }
 
         this.mousePositionStatic = e.getPoint();
 
@@ -209,6 +214,7 @@ public class DrawingPanel extends MapPanel implements PopupMenuListener {
     @Override
     public void popupMenuWillBecomeVisible(PopupMenuEvent e) {
         selectObstacleNear(mousePosition);
+        this.invalidateStaticLayer();
         JPopupMenu popupMenu = (JPopupMenu)e.getSource();
         popupMenu.removeAll();
         if(selectedObstacles.size() > 0){
@@ -1,8 +1,6 @@
 package org.lrima.network;
 
 import java.awt.*;
-import java.util.Timer;
-import java.util.TimerTask;
 
 import javax.swing.*;
 
@@ -18,16 +16,6 @@ public class NetworkPanel extends JPanel{
 		this.espece = espece;
 	}
 	
-	public void start() {
-
-		Timer uploadCheckerTimer = new Timer(false);
-		uploadCheckerTimer.scheduleAtFixedRate(
-		    new TimerTask() {
-		      public void run() { repaint(); }
-		    }, 0, 16);
-		
-	}
-	
 	/**
 	 * Dessine le systeme de neurone
 	 */
@@ -0,0 +1,249 @@
+package org.lrima.network.algorithms.fullyconnected;
+
+import org.lrima.network.functions.Function;
+import org.lrima.network.interfaces.NeuralNetwork;
+import org.lrima.network.interfaces.NeuralNetworkBatch;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * Calculates the output of all the fully connected networks of a simulation at once.
+ *
+ * The weights of every network are copied at the beginning of a generation in one array per layer.
+ * A car that replaces a dead car during the generation takes its place, so only its weights are copied.
+ * The cars are split in blocks, and inside a block the weights of the same connection of every car
+ * are next to each other. The values of the neurons are stored the same way. A block is then calculated
+ * with simple loops over contiguous memory, that the JIT can turn into vector instructions.
+ *
+ * The sums are done in the same order as {@link FullyConnectedNeuralNetwork#feedForward()},
+ * so the outputs are exactly the same.
+ */
+public class FullyConnectedBatch implements NeuralNetworkBatch {
+    //Number of cars calculated together. Their values stay in the cache from one layer to the next
+    private static final int BLOCK_SIZE = 32;
+
+    //The networks in the order of the packed arrays
+    private FullyConnectedNeuralNetwork[] networks = new FullyConnectedNeuralNetwork[0];
+    private int count = 0;
+    private int numberOfBlocks = 0;
+    private boolean packed = false;
+    //False if the networks don't all have the same shape. They are then updated one by one
+    private boolean compatible = false;
+
+    private int[] topology;
+    //weights[layer][(block * previousSize * size + previousSize * i + j) * BLOCK_SIZE + car] is the weight
+    //between the neuron j of the previous layer and the neuron i, for the car at this position in the block
+    private double[][] weights;
+    //activations[layer][(block * size + i) * BLOCK_SIZE + car] is the value of the neuron i
+    private double[][] activations;
+    //Position of each packed network
+    private final IdentityHashMap<FullyConnectedNeuralNetwork, Integer> slots = new IdentityHashMap<>();
+    //Positions of the networks asked at this tick in the packed arrays
+    private int[] positions = new int[0];
+    //True for the positions of the packed arrays used at this tick
+    private boolean[] used = new boolean[0];
+
+    private final double[] sums = new double[BLOCK_SIZE];
+    private double[] output;
+
+    @Override
+    public void feedForward(NeuralNetwork[] networks, int size) {
+        //Most of the cars are dead, don't calculate them anymore
+        if(packed && compatible && size < count / 2)
+            this.packed = false;
+
+        if(!packed || (compatible && !this.findPositions(networks, size))){
+            this.pack(networks, size);
+            if(compatible)
+                this.findPositions(networks, size);
+        }
+
+        if(!compatible){
+            for(int i = 0; i < size; i++)
+                networks[i].feedForward();
+            return;
+        }
+
+        //Inputs
+        double[] inputs = activations[0];
+        for(int n = 0; n < size; n++){
+            int index = this.indexOf(positions[n], 0, topology[0]);
+            FullyConnectedNeuralNetwork network = this.networks[positions[n]];
+            for(int i = 0; i < topology[0]; i++)
+                inputs[index + i * BLOCK_SIZE] = network.getInput(i);
+        }
+
+        for(int block = 0; block < numberOfBlocks; block++)
+            this.calculateBlock(block);
+
+        //Outputs
+        double[] outputs = activations[topology.length-1];
+        for(int n = 0; n < size; n++){
+            int index = this.indexOf(positions[n], 0, output.length);
+            for(int i = 0; i < output.length; i++)
+                output[i] = outputs[index + i * BLOCK_SIZE];
+
+            this.networks[positions[n]].setOutput(output);
+        }
+    }
+
+    /**
+     * @return the position of the value number i of a car in an array with a given number of values per car
+     */
+    private int indexOf(int car, int i, int valuesPerCar){
+        return ((car / BLOCK_SIZE) * valuesPerCar + i) * BLOCK_SIZE + car % BLOCK_SIZE;
+    }
+
+    /**
+     * Calculates all the layers for the cars of a block
+     */
+    private void calculateBlock(int block){
+        for(int layer = 1; layer < topology.length; layer++){
+            int previousSize = topology[layer-1];
+            int size = topology[layer];
+            double[] previous = activations[layer-1];
+            double[] current = activations[layer];
+            double[] layerWeights = weights[layer];
+
+            int previousOffset = block * previousSize * BLOCK_SIZE;
+            int weightOffset = block * previousSize * size * BLOCK_SIZE;
+            int currentOffset = block * size * BLOCK_SIZE;
+
+            for(int i = 0; i < size; i++){
+                for(int car = 0; car < BLOCK_SIZE; car++)
+                    sums[car] = 0;
+
+                for(int j = 0; j < previousSize; j++){
+                    int valueOffset = previousOffset + j * BLOCK_SIZE;
+                    for(int car = 0; car < BLOCK_SIZE; car++)
+                        sums[car] += previous[valueOffset + car] * layerWeights[weightOffset + car];
+
+                    weightOffset += BLOCK_SIZE;
+                }
+
+                for(int car = 0; car < BLOCK_SIZE; car++)
+                    current[currentOffset + i * BLOCK_SIZE + car] = Function.SIGMOID.getValue(sums[car]);
+            }
+        }
+    }
+
+    /**
+     * Finds where each network is in the packed arrays. A network that is not packed yet, like a car that
+     * replaces a dead car in the steady state mode, takes the place of a network that is not asked anymore,
+     * so only its weights are copied.
+     *
+     * @return false if a network can't be put in the packed arrays
+     */
+    private boolean findPositions(NeuralNetwork[] networks, int size){
+        if(positions.length < size)
+            positions = new int[size];
+        if(used.length < count)
+            used = new boolean[count];
+        Arrays.fill(used, 0, count, false);
+
+        int numberOfNewNetworks = 0;
+        for(int n = 0; n < size; n++){
+            Integer position = this.slots.get(networks[n]);
+            if(position == null || used[position]){
+                positions[n] = -1;
+                numberOfNewNetworks++;
+            }
+            else{
+                positions[n] = position;
+                used[position] = true;
+            }
+        }
+
+        int freePosition = 0;
+        for(int n = 0; n < size && numberOfNewNetworks > 0; n++){
+            if(positions[n] != -1)
+                continue;
+            if(!(networks[n] instanceof FullyConnectedNeuralNetwork)
+                    || !Arrays.equals(((FullyConnectedNeuralNetwork) networks[n]).getTopology(), topology))
+                return false;
+
+            while(freePosition < count && used[freePosition])
+                freePosition++;
+            if(freePosition == count)
+                return false;
+
+            this.slots.remove(this.networks[freePosition]);
+            this.networks[freePosition] = (FullyConnectedNeuralNetwork) networks[n];
+            this.slots.put(this.networks[freePosition], freePosition);
+            this.copyWeights(freePosition);
+            used[freePosition] = true;
+            positions[n] = freePosition;
+            numberOfNewNetworks--;
+        }
+
+        return true;
+    }
+
+    /**
+     * Copies the weights of the networks in the packed arrays
+     */
+    private void pack(NeuralNetwork[] networks, int size){
+        this.packed = true;
+        this.compatible = size > 0;
+        this.slots.clear();
+        this.count = size;
+        this.networks = new FullyConnectedNeuralNetwork[size];
+
+        for(int n = 0; n < size; n++){
+            if(!(networks[n] instanceof FullyConnectedNeuralNetwork)){
+                this.compatible = false;
+                return;
+            }
+            this.networks[n] = (FullyConnectedNeuralNetwork) networks[n];
+            if(n > 0 && !Arrays.equals(this.networks[n].getTopology(), this.networks[0].getTopology())){
+                this.compatible = false;
+                return;
+            }
+        }
+        if(!compatible)
+            return;
+
+        //The last block is filled with empty cars
+        this.numberOfBlocks = (count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        int paddedCount = numberOfBlocks * BLOCK_SIZE;
+
+        this.topology = this.networks[0].getTopology().clone();
+        this.output = new double[topology[topology.length-1]];
+        this.weights = new double[topology.length][];
+        this.activations = new double[topology.length][];
+        this.activations[0] = new double[topology[0] * paddedCount];
+
+        for(int layer = 1; layer < topology.length; layer++){
+            this.activations[layer] = new double[topology[layer] * paddedCount];
+            this.weights[layer] = new double[topology[layer-1] * topology[layer] * paddedCount];
+        }
+
+        for(int car = 0; car < count; car++){
+            this.slots.put(this.networks[car], car);
+            this.copyWeights(car);
+        }
+    }
+
+    /**
+     * Copies the weights of the network at a position in the packed arrays
+     */
+    private void copyWeights(int car){
+        Genotype genotype = this.networks[car].getGenotype();
+        double[] genomes = genotype.toArray();
+
+        for(int layer = 1; layer < topology.length; layer++){
+            int layerWeights = topology[layer-1] * topology[layer];
+            int offset = genotype.getWeightOffset(layer);
+            int index = this.indexOf(car, 0, layerWeights);
+
+            for(int w = 0; w < layerWeights; w++)
+                this.weights[layer][index + w * BLOCK_SIZE] = genomes[offset + w];
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        this.packed = false;
+    }
+}
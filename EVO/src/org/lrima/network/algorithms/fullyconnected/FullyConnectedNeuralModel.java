@@ -2,6 +2,7 @@ package org.lrima.network.algorithms.fullyconnected;
 
 import org.lrima.Interface.options.types.OptionInt;
 import org.lrima.network.annotations.AlgorithmInformation;
+import org.lrima.network.interfaces.NeuralNetworkBatch;
 import org.lrima.network.interfaces.NeuralNetworkModel;
 import org.lrima.Interface.options.Option;
 import org.lrima.network.interfaces.NeuralNetworkSuperviser;
@@ -27,6 +28,11 @@ public class FullyConnectedNeuralModel extends NeuralNetworkModel<FullyConnected
         return this.options;
     }
 
+    @Override
+    public NeuralNetworkBatch createNetworkBatch() {
+        return new FullyConnectedBatch();
+    }
+
     @Override
     public Class getNeuralNetworkClass() {
         return FullyConnectedNeuralNetwork.class;
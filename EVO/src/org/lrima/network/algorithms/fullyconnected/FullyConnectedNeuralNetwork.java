@@ -3,8 +3,10 @@ package org.lrima.network.algorithms.fullyconnected;
 import java.awt.*;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 
+import org.lrima.network.functions.Function;
 import org.lrima.network.interfaces.NeuralNetwork;
 import org.lrima.network.interfaces.NeuralNetworkReceiver;
 import org.lrima.network.interfaces.NeuralNetworkTransmitter;
@@ -13,6 +15,8 @@ import org.lrima.Interface.options.Option;
 public class FullyConnectedNeuralNetwork extends NeuralNetwork implements Serializable {
 	protected Genotype genotype;
 	protected int[] topology;
+	//The values of the neurons of each layer, reused at every feedForward
+	private transient double[][] activations;
 
 	public FullyConnectedNeuralNetwork(LinkedHashMap<String, Option> options) {
 		super(options);
@@ -37,7 +41,13 @@ public class FullyConnectedNeuralNetwork extends NeuralNetwork implements Serial
 			this.topology[i] = deepLevel;
 		this.topology[this.topology.length-1] = receiver.getSize();
 
-		genotype = new Genotype(this.topology);
+		//A child or a migrant keeps the weights it got from its parents, only a new network gets random weights
+		if(genotype == null || !Arrays.equals(genotype.getTopology(), this.topology))
+			genotype = new Genotype(this.topology);
+
+		this.activations = new double[this.topology.length][];
+		for(int i = 0; i < this.topology.length; i++)
+			this.activations[i] = new double[this.topology[i]];
 	}
 
 	@Override
@@ -49,22 +59,63 @@ public class FullyConnectedNeuralNetwork extends NeuralNetwork implements Serial
 		return new FullyConnectedNeuralNetwork(options, mutatedGenotype);
 	}
 
-	private Genotype getGenotype() {
+	/**
+	 * The child of a network with itself can have different weights, the copy keeps all the weights
+	 */
+	@Override
+	public FullyConnectedNeuralNetwork copy() {
+		return new FullyConnectedNeuralNetwork(options, this.genotype.copy());
+	}
+
+	Genotype getGenotype() {
 		return this.genotype;
 	}
 
+	int[] getTopology() {
+		return this.topology;
+	}
+
+	/**
+	 * @return the value of a transmitter, used as the input i of the network
+	 */
+	double getInput(int i) {
+		return this.transmitters.get(i).getNeuralNetworkInput();
+	}
+
+	/**
+	 * Gives an output calculated by a {@link FullyConnectedBatch} to the receiver
+	 */
+	void setOutput(double[] output) {
+		receiver.setNeuralNetworkOutput(output);
+	}
+
+	/**
+	 * Calculates the output of the network from the transmitters and gives it to the receiver.
+	 * It is called for every car at every tick, so it reuses the same arrays and reads the weights
+	 * directly in the genotype instead of creating a Layer for each layer.
+	 */
 	public void feedForward(){
-		double[] values = this.transmitters.stream().mapToDouble(NeuralNetworkTransmitter::getNeuralNetworkInput).toArray();
+		double[] weights = genotype.toArray();
+
+		double[] inputs = activations[0];
+		for(int i = 0; i < inputs.length; i++)
+			inputs[i] = this.transmitters.get(i).getNeuralNetworkInput();
+
+		for(int layer = 1; layer < topology.length; layer++){
+			double[] previous = activations[layer-1];
+			double[] current = activations[layer];
+			int offset = genotype.getWeightOffset(layer);
 
-		Layer previousLayer = new Layer(values, genotype.getSubsetForLayer(1));
-		for(int i = 1; i < topology.length; i++){
-			Layer currentLayer = new Layer(topology[i], genotype.getSubsetForLayer(i));
+			for(int i = 0; i < current.length; i++){
+				double sum = 0;
+				for(int j = 0; j < previous.length; j++)
+					sum += previous[j] * weights[offset + previous.length * i + j];
 
-			currentLayer.calculateSum(previousLayer);
-			previousLayer = currentLayer;
+				current[i] = Function.SIGMOID.getValue(sum);
+			}
 		}
 
-		receiver.setNeuralNetworkOutput(previousLayer.getOutput());
+		receiver.setNeuralNetworkOutput(activations[topology.length-1]);
 	}
 
 	@Override
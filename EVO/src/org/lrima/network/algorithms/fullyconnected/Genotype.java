@@ -67,6 +67,13 @@ public class Genotype {
         return new Genotype(newGenotype, topology, weightSize);
     }
 
+    /**
+     * @return a genotype with the same weights, that can be mutated without mutating this one
+     */
+    public Genotype copy(){
+        return new Genotype(genomes.clone(), topology, weightSize);
+    }
+
     /**
      * Get the weights according to the receiving layer
      *
@@ -82,6 +89,18 @@ public class Genotype {
         return getSubset(weightSize[layer-1], weightSize[layer]);
     }
 
+    /**
+     * Get the position of the first weight of a layer in {@link #toArray()}.
+     * The weight between the neuron j of the previous layer and the neuron i of this layer
+     * is at getWeightOffset(layer) + previousLayerSize * i + j
+     *
+     * @param layer, cannot be 0 because the layer 0 doesnt receive any
+     * @return the position of the first weight
+     */
+    public int getWeightOffset(int layer){
+        return weightSize[layer-1];
+    }
+
     public void setGenomes(double[] genomes) {
         this.genomes = genomes;
     }
@@ -102,6 +121,10 @@ public class Genotype {
         return this.genomes.length;
     }
 
+    public int[] getTopology() {
+        return topology;
+    }
+
     public int[] getWeight() {
         return weightSize;
     }
@@ -2,8 +2,11 @@ package org.lrima.network.algorithms.improved_neat;
 
 import org.lrima.utils.Random;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class ConnectionGene {
-    public static int currentInnovation = 0;
+    //Shared by all the simulations, which can run at the same time
+    public static final AtomicInteger currentInnovation = new AtomicInteger();
     private NodeGene input;
     private NodeGene output;
     private double weight;
@@ -16,8 +19,7 @@ public class ConnectionGene {
 
         this.weight = Random.getRandomDoubleValue(-1.0, 1.0);
         this.expresed = true;
-        this.innovation = ConnectionGene.currentInnovation;
-        ConnectionGene.currentInnovation += 1;
+        this.innovation = ConnectionGene.currentInnovation.getAndIncrement();
     }
 
     public void mutate(){
@@ -44,6 +46,16 @@ public class ConnectionGene {
         return connection;
     }
 
+    /**
+     * Copies the connection between the nodes of another genome
+     * @param input the node of the other genome with the same innovation as the input
+     * @param output the node of the other genome with the same innovation as the output
+     * @return the copy
+     */
+    public ConnectionGene copy(NodeGene input, NodeGene output){
+        return new ConnectionGene(input, output, this.weight, this.expresed, this.innovation);
+    }
+
     @Override
     public boolean equals(Object obj) {
         try{
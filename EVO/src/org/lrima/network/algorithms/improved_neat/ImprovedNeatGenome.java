@@ -15,12 +15,18 @@ import javax.xml.soap.Node;
 import java.awt.*;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 
 public class ImprovedNeatGenome extends NeuralNetwork {
 
+    //Both lists are sorted by innovation. The new genes always have the highest innovation, so they are added at the end
     private ArrayList<ConnectionGene> connections;
     private ArrayList<NodeGene> nodes;
+    //The input and output innovations of every connection, to find the existing ones quickly
+    private HashSet<Long> connectionKeys;
+    //The genes compiled for the forward pass, null when they changed since it was built
+    private NeatPhenotype phenotype;
 
     private final int nbOutput = 2;
 
@@ -28,6 +34,7 @@ public class ImprovedNeatGenome extends NeuralNetwork {
         super(neuralNetworkModel);
         this.connections = new ArrayList<>();
         this.nodes = new ArrayList<>();
+        this.connectionKeys = new HashSet<>();
     }
 
     /**
@@ -42,11 +49,11 @@ public class ImprovedNeatGenome extends NeuralNetwork {
         //Create the default nodes
         //Inputs
             for(NeuralNetworkTransmitter transmitter : transmitters){
-                nodes.add(new NodeGene(NodeGene.Type.INPUT));
+                this.addNode(new NodeGene(NodeGene.Type.INPUT));
             }
             //Output
             for(int i = 0 ; i < nbOutput ; i++){
-                nodes.add(new NodeGene(NodeGene.Type.OUTPUT));
+                this.addNode(new NodeGene(NodeGene.Type.OUTPUT));
             }
             //A connection between a random input and output
             ArrayList<NodeGene> inputNodes = this.getInputNodes();
@@ -65,13 +72,14 @@ public class ImprovedNeatGenome extends NeuralNetwork {
             NodeGene randomNodeInput1 = inputNodes.get(Random.getRandomIntegerValue(inputNodes.size()));
             NodeGene randomNodeOutput = outputNodes.get(Random.getRandomIntegerValue(outputNodes.size()));
 
-            this.connections.add(new ConnectionGene(randomNodeInput1, randomNodeOutput));
+            this.addConnection(new ConnectionGene(randomNodeInput1, randomNodeOutput));
         }
 
     }
 
     /**
-     * Create a child NeatGenome from two parent NeatGenome
+     * Create a child NeatGenome from two parent NeatGenome.
+     * The genes of both parents are sorted by innovation, so they are matched by walking both lists at the same time.
      * @param network1 the first parent
      * @param network2 the second parent
      * @return a child genome from parent1 and parent2
@@ -83,9 +91,15 @@ public class ImprovedNeatGenome extends NeuralNetwork {
         ImprovedNeatGenome parent1 = (ImprovedNeatGenome) network1;
         ImprovedNeatGenome parent2 = (ImprovedNeatGenome) network2;
 
+        ArrayList<NodeGene> nodes2 = parent2.getNodes();
+        int index2 = 0;
         for(NodeGene node : parent1.getNodes()){
-            if(parent2.getNodes().contains(node)){
-                NodeGene node2 = parent2.getNodeWithInnovation(node.getInnovation());
+            while(index2 < nodes2.size() && nodes2.get(index2).getInnovation() < node.getInnovation()){
+                index2++;
+            }
+
+            if(index2 < nodes2.size() && nodes2.get(index2).getInnovation() == node.getInnovation()){
+                NodeGene node2 = nodes2.get(index2);
                 NodeGene childNode = Random.getRandomBoolean() ? node.copy() : node2.copy();
                 child.addNode(childNode);
             }
@@ -94,23 +108,31 @@ public class ImprovedNeatGenome extends NeuralNetwork {
             }
         }
 
+        //The new connections have new innovations, they go after the ones copied to keep the list sorted
+        ArrayList<ConnectionGene> newConnections = new ArrayList<>();
+        ArrayList<ConnectionGene> connections2 = parent2.getConnections();
+        index2 = 0;
         for(ConnectionGene connection : parent1.getConnections()){
-            if(parent2.getConnections().contains(connection)){
-                ConnectionGene parent2Connection = parent2.getConnectionWithInnovation(connection.getInnovation());
-                ConnectionGene childConnection = Random.getRandomBoolean() ? connection.copy() : parent2Connection.copy();
+            while(index2 < connections2.size() && connections2.get(index2).getInnovation() < connection.getInnovation()){
+                index2++;
+            }
+
+            NodeGene childInputNode = child.getNodeWithInnovation(connection.getInput().getInnovation());
+            NodeGene childOutputNode = child.getNodeWithInnovation(connection.getOutput().getInnovation());
+
+            if(index2 < connections2.size() && connections2.get(index2).getInnovation() == connection.getInnovation()){
+                ConnectionGene parent2Connection = connections2.get(index2);
+                ConnectionGene childConnection = Random.getRandomBoolean() ? connection.copy(childInputNode, childOutputNode) : parent2Connection.copy(childInputNode, childOutputNode);
                 child.addConnection(childConnection);
             }
             else{ //Excess or disjoint
                 //Get connection from fittest parrent
-                NodeGene inputNode = connection.getInput();
-                NodeGene outputNode = connection.getOutput();
-
-                NodeGene childInputNode = child.getNodeWithInnovation(inputNode.getInnovation());
-                NodeGene childOutputNode = child.getNodeWithInnovation(outputNode.getInnovation());
-
-                child.addConnection(new ConnectionGene(childInputNode, childOutputNode));
+                newConnections.add(new ConnectionGene(childInputNode, childOutputNode));
             }
         }
+        for(ConnectionGene connection : newConnections){
+            child.addConnection(connection);
+        }
 
         return child;
     }
@@ -204,37 +226,43 @@ public class ImprovedNeatGenome extends NeuralNetwork {
                 connection.setWeight(weight);
             }
         }
+        this.phenotype = null;
     }
 
     /**
-     * Add a connection between two random nodes
+     * Add a connection between two random nodes.
+     * Gives up if no new connection is found after trying as many times as there are pairs of nodes
      */
     private void addConnectionMutation(){
-        NodeGene nodeGene1 = nodes.get(Random.getRandomIntegerValue(nodes.size()));
-        NodeGene nodeGene2;
+        for(int attempt = 0 ; attempt < nodes.size() * nodes.size() ; attempt++){
+            NodeGene nodeGene1 = nodes.get(Random.getRandomIntegerValue(nodes.size()));
+            NodeGene nodeGene2;
 
-        do{
-            nodeGene2 = nodes.get(Random.getRandomIntegerValue(nodes.size()));
-        }while(nodeGene2.getType().getInt() == nodeGene1.getType().getInt() && nodeGene1.getType() != NodeGene.Type.HIDDEN);
+            do{
+                nodeGene2 = nodes.get(Random.getRandomIntegerValue(nodes.size()));
+            }while(nodeGene2.getType().getInt() == nodeGene1.getType().getInt() && nodeGene1.getType() != NodeGene.Type.HIDDEN);
 
-        //Put nodeGene1 and nodeGene2 in the correct order
+            //Put nodeGene1 and nodeGene2 in the correct order
 
-        if(nodeGene1.getType().getInt() > nodeGene2.getType().getInt()){
-            NodeGene tmp = nodeGene1;
-            nodeGene1 = nodeGene2;
-            nodeGene2 = tmp;
-        }
+            if(nodeGene1.getType().getInt() > nodeGene2.getType().getInt()){
+                NodeGene tmp = nodeGene1;
+                nodeGene1 = nodeGene2;
+                nodeGene2 = tmp;
+            }
 
-        //Check if the connection already exist, else redo the process of adding node
-        for(ConnectionGene connection : connections){
-            if(connection.getInput() == nodeGene1 && connection.getOutput() == nodeGene2){
-                addConnectionMutation();
+            //If the connection doesn't already exist, create it. Else redo the process of adding node
+            if(!connectionKeys.contains(connectionKey(nodeGene1, nodeGene2))){
+                this.addConnection(new ConnectionGene(nodeGene1, nodeGene2));
                 return;
             }
         }
+    }
 
-        //If the connection doesn't already exist, create it
-        this.connections.add(new ConnectionGene(nodeGene1, nodeGene2));
+    /**
+     * @return a number identifying the connection between two nodes
+     */
+    private static long connectionKey(NodeGene input, NodeGene output){
+        return ((long) input.getInnovation() << 32) | (output.getInnovation() & 0xFFFFFFFFL);
     }
 
     /**
@@ -253,44 +281,19 @@ public class ImprovedNeatGenome extends NeuralNetwork {
         ConnectionGene startConnection = new ConnectionGene(input, newNode, 1.0);
         ConnectionGene endConnection = new ConnectionGene(newNode, output, connection.getWeight());
 
-        this.nodes.add(newNode);
-        this.connections.add(startConnection);
-        this.connections.add(endConnection);
+        this.addNode(newNode);
+        this.addConnection(startConnection);
+        this.addConnection(endConnection);
     }
 
     @Override
     public void feedForward() {
-
-        //Set the value to the input nodes
-        ArrayList<NodeGene> inputNodes = this.getInputNodes();
-        for(int i = 0 ; i < transmitters.size() ; i++){
-            NodeGene input = inputNodes.get(i);
-            input.setValue(this.transmitters.get(i).getNeuralNetworkInput());
-        }
-
-        for(NodeGene node : this.nodes){
-            if(node.getType() != NodeGene.Type.INPUT) {
-                ArrayList<NodeGene> nodesConnectingToIt = this.getInputsIntoNode(node);
-                ArrayList<Double> weightsConnectingToIt = this.getWeightsIntoNode(node);
-
-                node.calculateWeightedSum(nodesConnectingToIt, weightsConnectingToIt);
-            }
-        }
-
-        ArrayList<NodeGene> outputNodes = this.getOutputNodes();
-
-        double[] outputNodesValues = new double[outputNodes.size()];
-
-        for(int i = 0 ; i < outputNodes.size() ; i++){
-            NodeGene outputNode = outputNodes.get(i);
-
-            //To have a value between 0 and 1.
-            //double mappedValue = (outputNode.getValue() + 1)/(2);
-
-            outputNodesValues[i] = outputNode.getValue();
+        //The genes only change between the generations
+        if(this.phenotype == null){
+            this.phenotype = new NeatPhenotype(this.nodes, this.connections);
         }
 
-        this.receiver.setNeuralNetworkOutput(outputNodesValues);
+        this.receiver.setNeuralNetworkOutput(this.phenotype.feedForward(this.transmitters));
     }
 
     @Override
@@ -299,59 +302,23 @@ public class ImprovedNeatGenome extends NeuralNetwork {
     }
 
     /**
-     * Finds all the nodes leading into another node
-     * @param node the node to get the nodes going into
-     * @return all the nodes going into the specified node
-     */
-    private ArrayList<NodeGene> getInputsIntoNode(NodeGene node){
-        ArrayList<NodeGene> inputs = new ArrayList<>();
-        for(ConnectionGene connection : this.connections){
-            if(connection.getOutput() == node){
-                inputs.add(connection.getInput());
-            }
-        }
-
-        return inputs;
-    }
-
-    /**
-     * Find all the weights leading to a certain node
-     * @param node the node to get the weights going into
-     * @return an arrayList containing all the weights going in the specified node
-     */
-    private ArrayList<Double> getWeightsIntoNode(NodeGene node) {
-        ArrayList<Double> weights = new ArrayList<>();
-        for (ConnectionGene connection : this.connections) {
-            if (connection.getOutput() == node) {
-                weights.add(connection.getWeight());
-            }
-        }
-
-        return weights;
-    }
-
-    /**
-     * Goes through all the connections to find the one with a certain innovation number
-     * @param innovation the innovation number
-     * @return the connection with the specified innovation number
-     */
-    private ConnectionGene getConnectionWithInnovation(int innovation){
-        for(ConnectionGene connection : this.connections){
-            if(connection.getInnovation() == innovation){
-                return connection;
-            }
-        }
-        return null;
-    }
-
-    /**
-     * Goes through all the nodes and find the one with the specified innovation number
+     * Finds the node with the specified innovation number with a binary search
      * @param innovation the innovation number
-     * @return the node with the specified innovation number
+     * @return the node with the specified innovation number, null if there is none
      */
     private NodeGene getNodeWithInnovation(int innovation){
-        for(NodeGene node : this.nodes){
-            if(node.getInnovation() == innovation){
+        int low = 0;
+        int high = this.nodes.size() - 1;
+        while(low <= high){
+            int middle = (low + high) >>> 1;
+            NodeGene node = this.nodes.get(middle);
+            if(node.getInnovation() < innovation){
+                low = middle + 1;
+            }
+            else if(node.getInnovation() > innovation){
+                high = middle - 1;
+            }
+            else{
                 return node;
             }
         }
@@ -466,9 +433,11 @@ public class ImprovedNeatGenome extends NeuralNetwork {
 
     private void addConnection(ConnectionGene connection){
         this.connections.add(connection);
+        this.connectionKeys.add(connectionKey(connection.getInput(), connection.getOutput()));
+        this.phenotype = null;
     }
 
-    private ArrayList<ConnectionGene> getConnections() {
+    ArrayList<ConnectionGene> getConnections() {
         return connections;
     }
 
@@ -476,11 +445,12 @@ public class ImprovedNeatGenome extends NeuralNetwork {
         return fitness;
     }
 
-    private ArrayList<NodeGene> getNodes() {
+    ArrayList<NodeGene> getNodes() {
         return nodes;
     }
 
     private void addNode(NodeGene node){
         this.nodes.add(node);
+        this.phenotype = null;
     }
 }
@@ -0,0 +1,226 @@
+package org.lrima.network.algorithms.improved_neat;
+
+import org.lrima.network.functions.Function;
+import org.lrima.network.interfaces.NeuralNetworkTransmitter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.PriorityQueue;
+
+/**
+ * The network described by an {@link ImprovedNeatGenome}, compiled into arrays so a forward pass
+ * only goes through each expressed connection once, without looking up the genes.
+ *
+ * The nodes are calculated in topological order, so a node always uses the values of this tick of
+ * the nodes going into it. If the hidden nodes form a loop, the loop is cut at the node that comes
+ * first in the genome and the connection going back uses the value of the previous tick.
+ *
+ * It has to be built again every time the genes of the genome change.
+ */
+class NeatPhenotype {
+    //The genes of the nodes, to give them the values calculated
+    private final NodeGene[] nodes;
+    //Value of each node, kept from one tick to the next
+    private final double[] values;
+
+    //Index of the input nodes, in the order of the transmitters
+    private final int[] inputNodes;
+    //Index of the output nodes, in the order given to the receiver
+    private final int[] outputNodes;
+    private final double[] outputs;
+
+    //Index of the nodes to calculate, in the order to calculate them
+    private final int[] order;
+    //The connections going into order[i] are edgeStart[i] to edgeStart[i + 1] - 1
+    private final int[] edgeStart;
+    private final int[] edgeSource;
+    private final double[] edgeWeight;
+
+    /**
+     * Compiles the genes
+     * @param nodeGenes the nodes of the genome
+     * @param connectionGenes the connections of the genome. The disabled ones are ignored
+     */
+    NeatPhenotype(ArrayList<NodeGene> nodeGenes, ArrayList<ConnectionGene> connectionGenes){
+        int nodeCount = nodeGenes.size();
+        this.nodes = nodeGenes.toArray(new NodeGene[0]);
+        this.values = new double[nodeCount];
+
+        //The nodes are found by innovation, the connections copied from another genome don't point to the same objects
+        HashMap<NodeGene, Integer> indices = new HashMap<>();
+        int inputCount = 0, outputCount = 0;
+        for(int i = 0 ; i < nodeCount ; i++){
+            indices.put(nodes[i], i);
+            values[i] = nodes[i].getValue();
+
+            if(nodes[i].getType() == NodeGene.Type.INPUT){
+                inputCount++;
+            }
+            else if(nodes[i].getType() == NodeGene.Type.OUTPUT){
+                outputCount++;
+            }
+        }
+
+        this.inputNodes = new int[inputCount];
+        this.outputNodes = new int[outputCount];
+        this.outputs = new double[outputCount];
+        inputCount = outputCount = 0;
+        for(int i = 0 ; i < nodeCount ; i++){
+            if(nodes[i].getType() == NodeGene.Type.INPUT){
+                inputNodes[inputCount++] = i;
+            }
+            else if(nodes[i].getType() == NodeGene.Type.OUTPUT){
+                outputNodes[outputCount++] = i;
+            }
+        }
+
+        //Keep the expressed connections, grouped by the node they go into
+        int[] connectionSource = new int[connectionGenes.size()];
+        int[] connectionTarget = new int[connectionGenes.size()];
+        double[] connectionWeight = new double[connectionGenes.size()];
+        int[] incoming = new int[nodeCount + 1];
+        int edgeCount = 0;
+        for(ConnectionGene connection : connectionGenes){
+            Integer source = indices.get(connection.getInput());
+            Integer target = indices.get(connection.getOutput());
+            if(!connection.isExpresed() || source == null || target == null || nodes[target].getType() == NodeGene.Type.INPUT){
+                continue;
+            }
+
+            connectionSource[edgeCount] = source;
+            connectionTarget[edgeCount] = target;
+            connectionWeight[edgeCount] = connection.getWeight();
+            incoming[target + 1]++;
+            edgeCount++;
+        }
+        for(int i = 0 ; i < nodeCount ; i++){
+            incoming[i + 1] += incoming[i];
+        }
+
+        int[] nodeEdges = new int[edgeCount];
+        int[] position = incoming.clone();
+        for(int edge = 0 ; edge < edgeCount ; edge++){
+            nodeEdges[position[connectionTarget[edge]]++] = edge;
+        }
+
+        this.order = this.sortNodes(connectionSource, connectionTarget, edgeCount, incoming, nodeEdges);
+
+        //Lay the connections out in the order of the calculation
+        this.edgeStart = new int[order.length + 1];
+        this.edgeSource = new int[edgeCount];
+        this.edgeWeight = new double[edgeCount];
+        int index = 0;
+        for(int i = 0 ; i < order.length ; i++){
+            edgeStart[i] = index;
+            for(int k = incoming[order[i]] ; k < incoming[order[i] + 1] ; k++){
+                edgeSource[index] = connectionSource[nodeEdges[k]];
+                edgeWeight[index] = connectionWeight[nodeEdges[k]];
+                index++;
+            }
+        }
+        edgeStart[order.length] = index;
+    }
+
+    /**
+     * Sorts the nodes that are not inputs so every node comes after the nodes going into it (Kahn's algorithm).
+     * When only loops are left, the first node of the genome still waiting is taken.
+     *
+     * @return the index of the nodes in the order to calculate them
+     */
+    private int[] sortNodes(int[] connectionSource, int[] connectionTarget, int edgeCount, int[] incoming, int[] nodeEdges){
+        int nodeCount = nodes.length;
+
+        //Number of connections from a node that is not calculated yet
+        int[] waitingFor = new int[nodeCount];
+        int[] outgoingCount = new int[nodeCount + 1];
+        for(int edge = 0 ; edge < edgeCount ; edge++){
+            if(nodes[connectionSource[edge]].getType() != NodeGene.Type.INPUT){
+                waitingFor[connectionTarget[edge]]++;
+                outgoingCount[connectionSource[edge] + 1]++;
+            }
+        }
+        for(int i = 0 ; i < nodeCount ; i++){
+            outgoingCount[i + 1] += outgoingCount[i];
+        }
+        int[] outgoing = new int[outgoingCount[nodeCount]];
+        int[] position = outgoingCount.clone();
+        for(int edge = 0 ; edge < edgeCount ; edge++){
+            if(nodes[connectionSource[edge]].getType() != NodeGene.Type.INPUT){
+                outgoing[position[connectionSource[edge]]++] = connectionTarget[edge];
+            }
+        }
+
+        boolean[] done = new boolean[nodeCount];
+        PriorityQueue<Integer> ready = new PriorityQueue<>();
+        int remaining = 0;
+        for(int i = 0 ; i < nodeCount ; i++){
+            if(nodes[i].getType() == NodeGene.Type.INPUT){
+                done[i] = true;
+                continue;
+            }
+            remaining++;
+            if(waitingFor[i] == 0){
+                ready.add(i);
+            }
+        }
+
+        int[] order = new int[remaining];
+        int count = 0;
+        int firstWaiting = 0;
+        while(count < order.length){
+            int node;
+            if(!ready.isEmpty()){
+                node = ready.poll();
+                if(done[node]){
+                    continue;
+                }
+            }
+            else{
+                //Only loops are left, cut one
+                while(done[firstWaiting]){
+                    firstWaiting++;
+                }
+                node = firstWaiting;
+            }
+
+            done[node] = true;
+            order[count++] = node;
+            for(int k = outgoingCount[node] ; k < outgoingCount[node + 1] ; k++){
+                int target = outgoing[k];
+                if(--waitingFor[target] == 0 && !done[target]){
+                    ready.add(target);
+                }
+            }
+        }
+
+        return order;
+    }
+
+    /**
+     * Calculates the value of every node from the values of the transmitters
+     * @param transmitters the inputs of the network
+     * @return the values of the output nodes. The array is reused by the next call
+     */
+    double[] feedForward(ArrayList<? extends NeuralNetworkTransmitter> transmitters){
+        for(int i = 0 ; i < inputNodes.length && i < transmitters.size() ; i++){
+            values[inputNodes[i]] = transmitters.get(i).getNeuralNetworkInput();
+        }
+
+        for(int i = 0 ; i < order.length ; i++){
+            double sum = 0;
+            for(int k = edgeStart[i] ; k < edgeStart[i + 1] ; k++){
+                sum += edgeWeight[k] * values[edgeSource[k]];
+            }
+            values[order[i]] = Function.SIGMOID.getValue(sum);
+        }
+
+        for(int i = 0 ; i < nodes.length ; i++){
+            nodes[i].setValue(values[i]);
+        }
+        for(int i = 0 ; i < outputNodes.length ; i++){
+            outputs[i] = values[outputNodes[i]];
+        }
+
+        return outputs;
+    }
+}
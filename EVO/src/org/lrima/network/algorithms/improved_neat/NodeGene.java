@@ -1,6 +1,6 @@
 package org.lrima.network.algorithms.improved_neat;
 
-import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class NodeGene {
 
@@ -18,7 +18,8 @@ public class NodeGene {
         }
     }
 
-    private static int currentInnovation = 0;
+    //Shared by all the simulations, which can run at the same time
+    private static final AtomicInteger currentInnovation = new AtomicInteger();
 
     private Type type;
     private double value;
@@ -26,8 +27,7 @@ public class NodeGene {
 
     protected NodeGene(Type type){
         this.type = type;
-        this.innovation = NodeGene.currentInnovation;
-        NodeGene.currentInnovation = this.innovation + 1;
+        this.innovation = NodeGene.currentInnovation.getAndIncrement();
     }
 
     private NodeGene(Type type, int innovation){
@@ -39,29 +39,6 @@ public class NodeGene {
         return type;
     }
 
-    protected void calculateWeightedSum(ArrayList<NodeGene> genes, ArrayList<Double> weights){
-        double sum = 0;
-
-        for(int i = 0 ; i < genes.size() ; i++){
-            NodeGene gene = genes.get(i);
-            double weight = weights.get(i);
-
-            sum += weight * gene.getValue();
-        }
-
-        this.value = sigmoid(sum);
-    }
-
-    /**
-     * Applies the sigmoid function for a value
-     * @param a the value to apply the sigmoid function to
-     * @return the mapping of 'a' to the sigmoid function
-     */
-    private double sigmoid(double a){
-        return (1 / (1 + Math.pow(Math.E, -a)));
-    }
-
-
     protected NodeGene copy(){
         return new NodeGene(type, this.innovation);
     }
@@ -49,6 +49,15 @@ public abstract class NeuralNetwork {
     }
     public abstract NeuralNetwork crossOver(NeuralNetwork network1, NeuralNetwork network2);
 
+    /**
+     * Creates a network that behaves like this one and can be modified without modifying this one.
+     * By default, it is the child of the network with itself
+     * @return the new network
+     */
+    public NeuralNetwork copy(){
+        return this.crossOver(this, this);
+    }
+
     public void setFitness(double fitness){
         this.fitness = fitness;
     }
@@ -0,0 +1,22 @@
+package org.lrima.network.interfaces;
+
+/**
+ * Calculates the output of all the networks of a simulation at once.
+ * Algorithms where every network has the same shape can do it faster than calling
+ * {@link NeuralNetwork#feedForward()} on each network. See {@link NeuralNetworkModel#createNetworkBatch()}
+ */
+public interface NeuralNetworkBatch {
+
+    /**
+     * Gives the output of each network to its receiver, as if feedForward was called on each of them.
+     *
+     * @param networks the networks to update. They must stay in the same order at each tick of a generation
+     * @param size the number of networks to use in the array
+     */
+    public void feedForward(NeuralNetwork[] networks, int size);
+
+    /**
+     * Called when the networks or their weights changed, at the beginning of a generation
+     */
+    public void invalidate();
+}
@@ -111,6 +111,32 @@ public abstract class NeuralNetworkModel<T extends NeuralNetwork> implements Ser
         return superviser;
     }
 
+    /**
+     * Creates a new supervisor of the same type as {@link #getSuperviser()}.
+     * Supervisors keep information between generations, so every simulation needs its own.
+     *
+     * @return a new supervisor for a simulation
+     */
+    public NeuralNetworkSuperviser createSuperviser(){
+        try {
+            return getSuperviser().getClass().getConstructor().newInstance();
+        } catch (InstantiationException | IllegalAccessException | NoSuchMethodException | InvocationTargetException e) {
+            System.err.println("The supervisor " + getSuperviser().getClass().getName() + " doesn't have an empty constructor. It will be shared between the simulations");
+            e.printStackTrace();
+        }
+        return getSuperviser();
+    }
+
+    /**
+     * Creates an object that calculates the output of all the networks of a simulation at once.
+     * Every simulation needs its own.
+     *
+     * @return the batch, null if the networks of this algorithm must be updated one by one
+     */
+    public NeuralNetworkBatch createNetworkBatch(){
+        return null;
+    }
+
     /**
      * Gets a new instance of the neural network.
      *
@@ -2,10 +2,53 @@ package org.lrima.network.interfaces;
 
 import org.lrima.espece.Espece;
 import org.lrima.simulation.Simulation;
+import org.lrima.utils.Random;
 
 import java.io.Serializable;
 import java.util.ArrayList;
 
 public interface NeuralNetworkSuperviser extends Serializable {
     public ArrayList<Espece> alterEspeceListAtGenerationFinish(ArrayList<Espece> especes, Simulation simulation);
+
+    /**
+     * The number of best cars that decide the next generation. The cars ranked after them are removed
+     * and never used as parents, whatever their fitness. The next generation can then be bred before
+     * the end of the current one, once the cars still running can't reach these ranks anymore.
+     *
+     * @param numberOfCars the number of cars of a generation
+     * @return the number of cars, 0 if the rank of every car matters
+     */
+    public default int getNumberOfDecidingCars(int numberOfCars){
+        return 0;
+    }
+
+    /**
+     * Creates the car that replaces a dead car in the steady state mode, where the cars don't wait
+     * for the end of the generation. By default, it is the mutated child of two random cars of the elite.
+     *
+     * @param elite the best cars that died, sorted from the best. Their networks must not be modified
+     * @param deadEspece the car that died. It is not in the simulation anymore
+     * @param simulation the simulation of the cars
+     * @return the new car
+     */
+    public default Espece breedReplacement(ArrayList<Espece> elite, Espece deadEspece, Simulation simulation){
+        NeuralNetworkModel<?> model = simulation.getAlgorithm();
+        int numberOfSensors = (int) model.getSimulationOption(NeuralNetworkModel.KEY_NB_SENSORS);
+        double mutationChance = (double) model.getGeneticOption(NeuralNetworkModel.KEY_MUTATION_CHANCE);
+        double weightModifChance = (double) model.getGeneticOption(NeuralNetworkModel.KEY_WEIGHT_MODIFICATION_CHANCE);
+
+        NeuralNetwork parent1 = elite.get(Random.getRandomIntegerValue(elite.size())).getNeuralNetwork();
+        NeuralNetwork parent2 = elite.get(Random.getRandomIntegerValue(elite.size())).getNeuralNetwork();
+
+        Espece espece = new Espece(simulation);
+        espece.setNumberSensor(numberOfSensors);
+
+        NeuralNetwork child = parent1.crossOver(parent1, parent2);
+        child.setMutationChance(mutationChance);
+        child.setWeightModificationChance(weightModifChance);
+        child.generationFinish();
+        espece.setNeuralNetwork(child);
+
+        return espece;
+    }
 }
@@ -13,4 +13,12 @@ public class EmptySupervisor implements NeuralNetworkSuperviser {
     public ArrayList<Espece> alterEspeceListAtGenerationFinish(ArrayList<Espece> especes, Simulation simulation) {
         return especes;
     }
+
+    /**
+     * The cars never change, the dead car starts again
+     */
+    @Override
+    public Espece breedReplacement(ArrayList<Espece> elite, Espece deadEspece, Simulation simulation) {
+        return deadEspece;
+    }
 }
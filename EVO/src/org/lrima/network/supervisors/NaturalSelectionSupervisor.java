@@ -143,47 +143,43 @@ public class NaturalSelectionSupervisor implements NeuralNetworkSuperviser {
         Collections.sort(especes);
         best = especes.get(0);
 
-        especes = this.kill50(especes, model);
+        especes = this.kill50(especes, simulation);
         especes = this.repopulate(especes, simulation, model);
 
         return especes;
     }
 
     /**
-     * Kill half of the cars to keep the best half
+     * Kill half of the cars to keep the best half.
+     * The worst cars have more chance to be killed
      */
-    private ArrayList<Espece> kill50(ArrayList<Espece> especes, NeuralNetworkModel model) {
-        int numberOfCar = (int) model.getSimulationOption(NeuralNetworkModel.KEY_NB_CARS);
+    private ArrayList<Espece> kill50(ArrayList<Espece> especes, Simulation simulation) {
+        int numberOfCar = simulation.getNumberOfCars();
 
         //assign weight depending on position
-        HashMap<Espece, Double> weightedEspece = new HashMap<>();
+        double[] weights = new double[especes.size()];
         for(int i = 0 ; i < especes.size() ; i++){
-            weightedEspece.put(especes.get(i),  calculateWeight(i, especes));
+            weights[i] = calculateWeight(i, especes);
         }
+        WeightedSampler sampler = new WeightedSampler(weights);
 
         //Kill 50% of the cars
+        boolean[] killed = new boolean[especes.size()];
         do {
-            double allWeights = 0;
-            for(Espece e : weightedEspece.keySet()){
-                double weight = weightedEspece.get(e);
-                allWeights += weight;
+            int index = sampler.next();
+            if(index < 0){
+                break;
             }
+            killed[index] = true;
+        }while(sampler.size() > numberOfCar / 2);
 
-            double randomWeight = Random.getRandomDoubleValue(0, allWeights);
-            Espece selected = null;
-
-            for (Espece e : weightedEspece.keySet()) {
-                randomWeight -= weightedEspece.get(e);
-                if (randomWeight <= 0) {
-                    weightedEspece.remove(e);
-                    break;
-                }
+        //The cars are still sorted
+        ArrayList<Espece> returnEspece = new ArrayList<>(sampler.size());
+        for(int i = 0 ; i < especes.size() ; i++){
+            if(!killed[i]){
+                returnEspece.add(especes.get(i));
             }
-        }while(weightedEspece.size() > numberOfCar / 2);
-
-
-        ArrayList<Espece> returnEspece = new ArrayList<>(weightedEspece.keySet());
-        Collections.sort(returnEspece);
+        }
         return returnEspece;
     }
 
@@ -191,7 +187,7 @@ public class NaturalSelectionSupervisor implements NeuralNetworkSuperviser {
      * Create the cars that was destroyed in kill50 to always keep the same number of cars
      */
     private ArrayList<Espece> repopulate(ArrayList<Espece> especes, Simulation simulation , NeuralNetworkModel model) {
-        int numberOfCar = (int) model.getSimulationOption(NeuralNetworkModel.KEY_NB_CARS);
+        int numberOfCar = simulation.getNumberOfCars();
         int numberOfSensors = (int) model.getSimulationOption(NeuralNetworkModel.KEY_NB_SENSORS);
 
         double mutationChance = (double) model.getGeneticOption(NeuralNetworkModel.KEY_MUTATION_CHANCE);
@@ -205,37 +201,45 @@ public class NaturalSelectionSupervisor implements NeuralNetworkSuperviser {
             this.bests.add(especes.get(i));
         }
 
-        ArrayList<Espece> newCars = new ArrayList<>();
-
-        while(especes.size() + newCars.size() < numberOfCar) {
+        //Select the parents of every new car
+        int numberOfNewCars = Math.max(0, numberOfCar - especes.size());
+        NeuralNetwork[] parents1 = new NeuralNetwork[numberOfNewCars];
+        NeuralNetwork[] parents2 = new NeuralNetwork[numberOfNewCars];
+        for(int i = 0 ; i < numberOfNewCars ; i++) {
             int randomParent1 = Random.getRandomIntegerValue(bests.size());
             int randomParent2;
 
             //Select two parrents
-            NeuralNetwork neuralNetworkParent1 = bests.get(randomParent1).getNeuralNetwork();
-            NeuralNetwork neuralNetworkParent2;
+            parents1[i] = bests.get(randomParent1).getNeuralNetwork();
             do {
                 randomParent2 = Random.getRandomIntegerValue(halfBestEspece.size());
-                neuralNetworkParent2 = halfBestEspece.get(randomParent2).getNeuralNetwork();
+                parents2[i] = halfBestEspece.get(randomParent2).getNeuralNetwork();
             }while(randomParent1 == randomParent2);
+        }
 
+        //The parents are only read, so the children can be created at the same time
+        Espece[] newCars = new Espece[numberOfNewCars];
+        ParallelBreeder.forEach(simulation, numberOfNewCars, i -> {
             Espece e = new Espece(simulation);
             e.setNumberSensor(numberOfSensors);
 
-            NeuralNetwork childNeuralNetwork = neuralNetworkParent1.crossOver(neuralNetworkParent1, neuralNetworkParent2);
+            NeuralNetwork childNeuralNetwork = parents1[i].crossOver(parents1[i], parents2[i]);
             childNeuralNetwork.setMutationChance(mutationChance);
             childNeuralNetwork.setWeightModificationChance(weightModifChance);
 
             e.setNeuralNetwork(childNeuralNetwork);
 
-            newCars.add(e);
-        }
-        especes.addAll(newCars);
+            newCars[i] = e;
+        });
+        especes.addAll(Arrays.asList(newCars));
 
-        for(Espece e : especes){
+        //Every car mutates its own network, once all the children are created
+        ArrayList<Espece> allCars = especes;
+        ParallelBreeder.forEach(simulation, allCars.size(), i -> {
+            Espece e = allCars.get(i);
             e.setFitness(0.0);
             e.getNeuralNetwork().generationFinish();
-        }
+        });
 
         return especes;
     }
@@ -6,10 +6,13 @@ import org.lrima.network.interfaces.NeuralNetwork;
 import org.lrima.network.interfaces.NeuralNetworkModel;
 import org.lrima.network.interfaces.NeuralNetworkSuperviser;
 import org.lrima.simulation.Simulation;
+import org.lrima.utils.Random;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.function.Predicate;
 import java.util.stream.Collector;
 
@@ -28,7 +31,7 @@ public class OtherSupervisor implements NeuralNetworkSuperviser {
         NeuralNetworkModel model = simulation.getAlgorithm();
         Collections.sort(especes);
 
-        this.kill(especes, model);
+        this.kill(especes, simulation);
         this.repopulate(especes, model, simulation);
 
 
@@ -36,7 +39,7 @@ public class OtherSupervisor implements NeuralNetworkSuperviser {
     }
 
     private void repopulate(ArrayList<Espece> especes, NeuralNetworkModel model, Simulation simulation) {
-        int numberOfCars = (int) model.getSimulationOption(NeuralNetworkModel.KEY_NB_CARS);
+        int numberOfCars = simulation.getNumberOfCars();
         int numberOfSensors = (int) model.getSimulationOption(NeuralNetworkModel.KEY_NB_SENSORS);
 
         double mutationChance = (double) model.getGeneticOption(NeuralNetworkModel.KEY_MUTATION_CHANCE);
@@ -44,39 +47,60 @@ public class OtherSupervisor implements NeuralNetworkSuperviser {
 
 
 
-        while(especes.size() < numberOfCars){
-            Collections.sort(bestPerformingOnes);
+        //A car still running when the generation is bred in advance can change its fitness during the sort
+        IdentityHashMap<Espece, Double> fitnesses = new IdentityHashMap<>();
+        for(Espece espece : bestPerformingOnes){
+            fitnesses.put(espece, espece.getFitness());
+        }
+        bestPerformingOnes.sort((espece1, espece2) -> Double.compare(fitnesses.get(espece2), fitnesses.get(espece1)));
 
-            int pbestTaken = simulation.getGeneration() > pbestTakenCap ? pbestTakenCap : simulation.getGeneration();
+        //Select the parents of every new car
+        int numberOfNewCars = Math.max(0, numberOfCars - especes.size());
+        NeuralNetwork[] parents1 = new NeuralNetwork[numberOfNewCars];
+        NeuralNetwork[] parents2 = new NeuralNetwork[numberOfNewCars];
+        for(int i = 0 ; i < numberOfNewCars ; i++){
+            int pbestTaken = simulation.getBreedingGeneration() > pbestTakenCap ? pbestTakenCap : simulation.getBreedingGeneration();
 
-            int randomPick = (int) (Math.random() * pbestTaken);
-            int randomPick2 = (int) (Math.random() * pbestTaken);
+            int randomPick = Random.getRandomIntegerValue(pbestTaken);
+            int randomPick2 = Random.getRandomIntegerValue(pbestTaken);
 
             //check that there are not the same
             /*while(randomPick == randomPick2){
-                randomPick2 = (int) (Math.random() * pbestTaken);
+                randomPick2 = Random.getRandomIntegerValue(pbestTaken);
             }*/
 
+            parents1[i] = bestPerformingOnes.get(randomPick).getNeuralNetwork();
+            parents2[i] = bestPerformingOnes.get(randomPick2).getNeuralNetwork();
+        }
+
+        //The parents are only read, so the children can be created at the same time
+        Espece[] newCars = new Espece[numberOfNewCars];
+        ParallelBreeder.forEach(simulation, numberOfNewCars, i -> {
             Espece e = new Espece(simulation);
             e.setNumberSensor(numberOfSensors);
 
-            NeuralNetwork neuralNetworkParent1 = bestPerformingOnes.get(randomPick).getNeuralNetwork();
-            NeuralNetwork neuralNetworkParent2 = bestPerformingOnes.get(randomPick2).getNeuralNetwork();
-
-
-            NeuralNetwork childNeuralNetwork = neuralNetworkParent1.crossOver(neuralNetworkParent1, neuralNetworkParent2);
+            NeuralNetwork childNeuralNetwork = parents1[i].crossOver(parents1[i], parents2[i]);
             childNeuralNetwork.setMutationChance(mutationChance);
             childNeuralNetwork.setWeightModificationChance(weightModifChance);
 
             childNeuralNetwork.mutate();
             e.setNeuralNetwork(childNeuralNetwork);
 
-            especes.add(e);
-        }
+            newCars[i] = e;
+        });
+        especes.addAll(Arrays.asList(newCars));
+    }
+
+    /**
+     * The 10 best cars are kept as parents and the cars under the fitness of the car at 20% are removed
+     */
+    @Override
+    public int getNumberOfDecidingCars(int numberOfCars) {
+        return Math.max(pbestTakenCap, (int)(pmiddle * numberOfCars) + 1);
     }
 
-    private void kill(ArrayList<Espece> especes, NeuralNetworkModel model) {
-        int numberOfCar = (int) model.getSimulationOption(NeuralNetworkModel.KEY_NB_CARS);
+    private void kill(ArrayList<Espece> especes, Simulation simulation) {
+        int numberOfCar = simulation.getNumberOfCars();
         for(int i = 0; i < pbestTakenCap; i++){
             if(!bestPerformingOnes.contains(especes.get(i)))
             bestPerformingOnes.add(especes.get(i));
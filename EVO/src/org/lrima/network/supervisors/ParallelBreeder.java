@@ -0,0 +1,91 @@
+package org.lrima.network.supervisors;
+
+import org.lrima.simulation.Simulation;
+import org.lrima.utils.Random;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Runs the work of a supervisor between two generations on the threads of the simulation.
+ *
+ * Every index gets its own random stream, seeded one after the other from the random values of the calling thread.
+ * An index always draws the same random values no matter which thread runs it, so the result
+ * is the same with one thread or many.
+ */
+public class ParallelBreeder {
+    //Under this number of indices, the task doesn't split anymore
+    private static final int MIN_INDICES_PER_TASK = 4;
+
+    /**
+     * Calls a task for every index from 0 to count - 1 and waits for all of them.
+     * The tasks must not modify anything shared with the other indices.
+     *
+     * @param simulation the simulation giving the threads. Runs on the calling thread if it has none
+     * @param count the number of indices
+     * @param task the task to call with every index
+     */
+    public static void forEach(Simulation simulation, int count, IntConsumer task){
+        long[] seeds = new long[count];
+        for(int i = 0 ; i < count ; i++){
+            seeds[i] = Random.getRandomLong();
+        }
+
+        ForkJoinPool pool = simulation.getTickPool();
+        if(pool == null){
+            java.util.Random callerRandom = Random.getThreadRandom();
+            try {
+                for (int i = 0; i < count; i++) {
+                    run(task, i, seeds[i]);
+                }
+            }
+            finally {
+                Random.setThreadRandom(callerRandom);
+            }
+        }
+        else{
+            pool.invoke(new BreedTask(task, seeds, 0, count));
+        }
+    }
+
+    private static void run(IntConsumer task, int index, long seed){
+        Random.setThreadRandom(new java.util.Random(seed));
+        try {
+            task.accept(index);
+        }
+        finally {
+            Random.setThreadRandom(null);
+        }
+    }
+
+    /**
+     * Splits the indices between the threads of the pool
+     */
+    private static class BreedTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final IntConsumer task;
+        private final long[] seeds;
+        private final int from, to;
+
+        BreedTask(IntConsumer task, long[] seeds, int from, int to){
+            this.task = task;
+            this.seeds = seeds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from <= MIN_INDICES_PER_TASK){
+                for(int i = from ; i < to ; i++){
+                    run(task, i, seeds[i]);
+                }
+            }
+            else{
+                int middle = (from + to) >>> 1;
+                invokeAll(new BreedTask(task, seeds, from, middle), new BreedTask(task, seeds, middle, to));
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.lrima.network.supervisors;
+
+import org.lrima.utils.Random;
+
+/**
+ * Picks random items with a chance proportional to their weight, without putting them back.
+ * The items with a weight of 0 are never picked.
+ * The weights are kept in a Fenwick tree, so picking or removing an item is O(log n)
+ * instead of adding all the weights again every time.
+ */
+public class WeightedSampler {
+    private final double[] weights;
+    //tree[i] is the sum of the weights from i - (i & -i) to i - 1
+    private final double[] tree;
+    private int size;
+
+    /**
+     * @param weights the weight of each item. They can't be negative
+     */
+    public WeightedSampler(double[] weights){
+        this.weights = weights.clone();
+        this.tree = new double[weights.length + 1];
+
+        //Builds the tree in O(n)
+        for(int i = 1 ; i <= weights.length ; i++){
+            if(!(weights[i - 1] >= 0)){
+                throw new IllegalArgumentException("The weight of the item " + (i - 1) + " is " + weights[i - 1]);
+            }
+            if(weights[i - 1] != 0){
+                size++;
+            }
+
+            tree[i] += weights[i - 1];
+            int parent = i + (i & -i);
+            if(parent <= weights.length){
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    /**
+     * Picks a random item and removes it
+     * @return the index of the item, -1 if there is none left
+     */
+    public int next(){
+        if(size == 0){
+            return -1;
+        }
+
+        int index = this.find(Random.getRandomDoubleValue(0, this.getTotalWeight()));
+        this.remove(index);
+
+        return index;
+    }
+
+    /**
+     * Finds the item where the cumulated weights go over a value
+     * @param value between 0 and the total weight
+     * @return the index of the item
+     */
+    private int find(double value){
+        int position = 0;
+        for(int step = Integer.highestOneBit(weights.length) ; step > 0 ; step >>= 1){
+            if(position + step <= weights.length && tree[position + step] <= value){
+                position += step;
+                value -= tree[position];
+            }
+        }
+
+        //The rounding errors can give a removed item or the end of the array, take the closest item left
+        position = Math.min(position, weights.length - 1);
+        for(int i = position ; i < weights.length ; i++){
+            if(weights[i] != 0){
+                return i;
+            }
+        }
+        while(weights[position] == 0){
+            position--;
+        }
+
+        return position;
+    }
+
+    /**
+     * Removes an item so it can't be picked anymore
+     * @param index the index of the item
+     */
+    public void remove(int index){
+        if(weights[index] == 0){
+            return;
+        }
+
+        double weight = weights[index];
+        weights[index] = 0;
+        size--;
+        for(int i = index + 1 ; i <= weights.length ; i += i & -i){
+            tree[i] -= weight;
+        }
+    }
+
+    /**
+     * @return the sum of the weights of the items left
+     */
+    public double getTotalWeight(){
+        double total = 0;
+        for(int i = weights.length ; i > 0 ; i -= i & -i){
+            total += tree[i];
+        }
+
+        return Math.max(0, total);
+    }
+
+    /**
+     * @return the number of items left that can be picked
+     */
+    public int size(){
+        return size;
+    }
+}
@@ -0,0 +1,51 @@
+package org.lrima.simulation;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+
+/**
+ * The results of the simulations of a batch, from a batch that ran or from a results file
+ */
+public interface BatchResults {
+    String getAlgorithmName();
+
+    /**
+     * @return the seed the random values of the batch come from
+     */
+    long getSeed();
+
+    /**
+     * @return the options of the algorithm, by name
+     */
+    LinkedHashMap<String, String> getOptions();
+
+    /**
+     * @return the generations of each simulation, in the order of the simulations
+     */
+    ArrayList<SimulationInformation> getSimulationInformations();
+
+    /**
+     * @return the average fitness of each generation, averaged over the simulations
+     */
+    default double[] getAverageFitnessPerGeneration(){
+        ArrayList<SimulationInformation> informations = this.getSimulationInformations();
+        if(informations.isEmpty()){
+            return new double[0];
+        }
+
+        int numberOfGenerations = Integer.MAX_VALUE;
+        for(SimulationInformation information : informations){
+            numberOfGenerations = Math.min(numberOfGenerations, information.getGenerations().size());
+        }
+
+        double[] fitnesses = new double[numberOfGenerations];
+        for(int generation = 0 ; generation < numberOfGenerations ; generation++){
+            for(SimulationInformation information : informations){
+                fitnesses[generation] += information.getGenerations().get(generation).getMoyenneFitness();
+            }
+            fitnesses[generation] /= informations.size();
+        }
+
+        return fitnesses;
+    }
+}
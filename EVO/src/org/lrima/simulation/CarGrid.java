@@ -0,0 +1,153 @@
+package org.lrima.simulation;
+
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * Puts the positions of the cars of a snapshot in a grid of square cells, so the cars in a part of the map
+ * and the car near a point are found without going through all the cars.
+ * The cells are about the size needed to have one car per cell, but never smaller than a car.
+ */
+class CarGrid {
+    private static final int MIN_CELL_SIZE = 100;
+
+    private final int[] x;
+    private final int[] y;
+
+    private final int minX, minY;
+    private final int cellSize;
+    private final int columns, rows;
+    //The cars of cell i are cars[cellStarts[i]] to cars[cellStarts[i + 1] - 1], in the order of the snapshot
+    private final int[] cellStarts;
+    private final int[] cars;
+
+    /**
+     * @param x the x positions of the cars
+     * @param y the y positions of the cars, same length as x
+     */
+    CarGrid(int[] x, int[] y){
+        this.x = x;
+        this.y = y;
+
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        for(int i = 0 ; i < x.length ; i++){
+            minX = Math.min(minX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxX = Math.max(maxX, x[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+        if(x.length == 0){
+            minX = minY = maxX = maxY = 0;
+        }
+        this.minX = minX;
+        this.minY = minY;
+
+        double width = (double)maxX - minX + 1;
+        double height = (double)maxY - minY + 1;
+        this.cellSize = (int)Math.max(MIN_CELL_SIZE, Math.ceil(Math.sqrt(width * height / Math.max(1, x.length))));
+        this.columns = (int)(width / cellSize) + 1;
+        this.rows = (int)(height / cellSize) + 1;
+
+        //Count the cars of each cell, then put them after the cars of the cells before
+        int[] cellOfCar = new int[x.length];
+        this.cellStarts = new int[columns * rows + 1];
+        for(int i = 0 ; i < x.length ; i++){
+            cellOfCar[i] = columnOf(x[i]) + rowOf(y[i]) * columns;
+            cellStarts[cellOfCar[i] + 1]++;
+        }
+        for(int i = 1 ; i < cellStarts.length ; i++){
+            cellStarts[i] += cellStarts[i - 1];
+        }
+
+        this.cars = new int[x.length];
+        int[] nextInCell = Arrays.copyOf(cellStarts, cellStarts.length - 1);
+        for(int i = 0 ; i < x.length ; i++){
+            cars[nextInCell[cellOfCar[i]]++] = i;
+        }
+    }
+
+    private int columnOf(int x){
+        return Math.min(columns - 1, Math.max(0, (x - minX) / cellSize));
+    }
+
+    private int rowOf(int y){
+        return Math.min(rows - 1, Math.max(0, (y - minY) / cellSize));
+    }
+
+    /**
+     * Finds the cars whose position is in an area
+     * @param area the area in the coordinates of the map
+     * @return the indexes of the cars, from the smallest
+     */
+    int[] getCarsIn(Rectangle area){
+        int[] found = new int[cars.length];
+        int count = 0;
+
+        int firstColumn = columnOf(area.x), lastColumn = columnOf(area.x + area.width);
+        int firstRow = rowOf(area.y), lastRow = rowOf(area.y + area.height);
+        for(int row = firstRow ; row <= lastRow ; row++){
+            for(int column = firstColumn ; column <= lastColumn ; column++){
+                int cell = column + row * columns;
+                for(int i = cellStarts[cell] ; i < cellStarts[cell + 1] ; i++){
+                    int car = cars[i];
+                    if(area.contains(x[car], y[car])){
+                        found[count++] = car;
+                    }
+                }
+            }
+        }
+
+        //Keep the order of the snapshot so the cars are drawn over each other the same way
+        Arrays.sort(found, 0, count);
+        return Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Finds the car whose position is the closest to a point. When two cars are as close,
+     * the last one in the snapshot is chosen
+     * @param point the point in the coordinates of the map
+     * @return the index of the car, -1 if there is no car
+     */
+    int getNearest(Point point){
+        int nearest = -1;
+        long nearestDistance = Long.MAX_VALUE;
+
+        int column = columnOf(point.x);
+        int row = rowOf(point.y);
+        int maxRing = Math.max(columns, rows);
+        for(int ring = 0 ; ring <= maxRing ; ring++){
+            for(int cellRow = row - ring ; cellRow <= row + ring ; cellRow++){
+                if(cellRow < 0 || cellRow >= rows){
+                    continue;
+                }
+                for(int cellColumn = column - ring ; cellColumn <= column + ring ; cellColumn++){
+                    //Only the cells on the border of the ring, the others were looked at before
+                    if(cellColumn < 0 || cellColumn >= columns || (Math.abs(cellRow - row) != ring && Math.abs(cellColumn - column) != ring)){
+                        continue;
+                    }
+
+                    int cell = cellColumn + cellRow * columns;
+                    for(int i = cellStarts[cell] ; i < cellStarts[cell + 1] ; i++){
+                        int car = cars[i];
+                        long dx = (long)point.x - x[car];
+                        long dy = (long)point.y - y[car];
+                        long distance = dx * dx + dy * dy;
+                        if(distance < nearestDistance || (distance == nearestDistance && car > nearest)){
+                            nearest = car;
+                            nearestDistance = distance;
+                        }
+                    }
+                }
+            }
+
+            //The cars of the next rings are at least this far from the point
+            long nextRingDistance = (long)ring * cellSize;
+            if(nearest != -1 && nearestDistance < nextRingDistance * nextRingDistance){
+                break;
+            }
+        }
+
+        return nearest;
+    }
+}
@@ -0,0 +1,110 @@
+package org.lrima.simulation;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A temporary file that keeps the fitness values of the old generations of a simulation,
+ * so long simulations don't keep all of them in memory.
+ *
+ * When the simulation ends, the file is mapped in memory and deleted, so the values can still be read
+ * without keeping the file open. The files that are not closed are deleted when the program ends.
+ */
+class FitnessHistoryFile {
+    //The files that are not closed yet
+    private static final Set<File> openFiles = ConcurrentHashMap.newKeySet();
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> openFiles.forEach(File::delete)));
+    }
+
+    private final File tempFile;
+    //null once the file is closed
+    private RandomAccessFile file;
+    //The values of the file once it is closed
+    private MappedByteBuffer mappedValues;
+    private long length = 0;
+
+    FitnessHistoryFile() throws IOException {
+        this.tempFile = File.createTempFile("evo-history", ".bin");
+        openFiles.add(tempFile);
+        this.file = new RandomAccessFile(tempFile, "rw");
+    }
+
+    /**
+     * Adds values at the end of the file
+     * @param values the values to write
+     * @return the position of the values in the file
+     */
+    synchronized long write(double[] values) throws IOException {
+        if(file == null){
+            throw new IOException("The history file is closed");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * Double.BYTES);
+        buffer.asDoubleBuffer().put(values);
+
+        long position = length;
+        file.seek(position);
+        file.write(buffer.array());
+        length += buffer.capacity();
+
+        return position;
+    }
+
+    /**
+     * Reads values written before
+     * @param position the position given when they were written
+     * @param count the number of values
+     * @return the values
+     */
+    synchronized double[] read(long position, int count) throws IOException {
+        double[] values = new double[count];
+        if(mappedValues != null){
+            ByteBuffer buffer = mappedValues.duplicate();
+            buffer.position((int) position);
+            buffer.asDoubleBuffer().get(values);
+            return values;
+        }
+
+        byte[] bytes = new byte[count * Double.BYTES];
+        file.seek(position);
+        file.readFully(bytes);
+        ByteBuffer.wrap(bytes).asDoubleBuffer().get(values);
+
+        return values;
+    }
+
+    /**
+     * Maps the values in memory, then closes and deletes the file. No values can be written after
+     */
+    synchronized void close(){
+        if(file == null){
+            return;
+        }
+        //A mapping is limited to 2 GB, a bigger file stays open until the program ends
+        if(length > Integer.MAX_VALUE){
+            return;
+        }
+
+        try {
+            this.mappedValues = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, length);
+            file.close();
+            file = null;
+        } catch (IOException e) {
+            System.err.println("The history file " + tempFile.getAbsolutePath() + " could not be closed");
+            e.printStackTrace();
+            return;
+        }
+
+        //The mapping stays valid, but some systems don't delete a mapped file until the program ends
+        if(tempFile.delete()){
+            openFiles.remove(tempFile);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.lrima.simulation;
+
+import org.lrima.espece.Espece;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * The fitness of the cars still running at one tick of a simulation.
+ * The simulation calculates it when it copies the cars for the interface, so the interface can read it
+ * as often as it wants without sorting the cars again. It never changes once created.
+ */
+public class FitnessStatistics {
+    public static final FitnessStatistics EMPTY = new FitnessStatistics(null, 0, 0, new double[0]);
+
+    private final Espece best;
+    private final double bestFitness;
+    private final double medianFitness;
+    //The best fitnesses, from the best
+    private final double[] topFitnesses;
+
+    private FitnessStatistics(Espece best, double bestFitness, double medianFitness, double[] topFitnesses){
+        this.best = best;
+        this.bestFitness = bestFitness;
+        this.medianFitness = medianFitness;
+        this.topFitnesses = topFitnesses;
+    }
+
+    /**
+     * Calculates the statistics of some cars
+     * @param especes the cars
+     * @param numberOfTopFitnesses the number of best fitnesses to keep
+     * @param fitnesses an array to reuse, at least as long as the number of cars
+     * @return the statistics
+     */
+    static FitnessStatistics of(ArrayList<Espece> especes, int numberOfTopFitnesses, double[] fitnesses){
+        int size = especes.size();
+        if(size == 0){
+            return EMPTY;
+        }
+
+        Espece best = null;
+        double bestFitness = 0;
+        for(int i = 0 ; i < size ; i++){
+            Espece espece = especes.get(i);
+            fitnesses[i] = espece.getFitness();
+            if(best == null || fitnesses[i] > bestFitness){
+                best = espece;
+                bestFitness = fitnesses[i];
+            }
+        }
+
+        Arrays.sort(fitnesses, 0, size);
+
+        double[] topFitnesses = new double[Math.min(numberOfTopFitnesses, size)];
+        for(int i = 0 ; i < topFitnesses.length ; i++){
+            topFitnesses[i] = fitnesses[size - 1 - i];
+        }
+
+        //Same car as the median of a generation, the one in the middle when sorted from the best
+        return new FitnessStatistics(best, bestFitness, fitnesses[size - 1 - size / 2], topFitnesses);
+    }
+
+    /**
+     * @return the car with the best fitness, null if there is no car
+     */
+    public Espece getBest() {
+        return best;
+    }
+
+    public double getBestFitness() {
+        return bestFitness;
+    }
+
+    public double getMedianFitness() {
+        return medianFitness;
+    }
+
+    /**
+     * @return the best fitnesses, from the best
+     */
+    public double[] getTopFitnesses() {
+        return topFitnesses.clone();
+    }
+}
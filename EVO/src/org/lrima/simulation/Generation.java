@@ -2,61 +2,169 @@ package org.lrima.simulation;
 
 import org.lrima.espece.Espece;
 
+import java.io.IOException;
+import java.nio.DoubleBuffer;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 
+/**
+ * The fitness of all the cars of a generation. Only the values are kept, not the cars and their networks.
+ * The values can be moved to a file to free the memory. The statistics stay in memory.
+ * A generation read from a results file reads its values from the file only when they are asked for.
+ */
 public class Generation {
-    //All the cars in this generation
-    private final ArrayList<Espece> especes;
-    private double medianFitness;
-    private double moyenneFitness;
+    //The fitness of every car, from the best. null when they are in the file.
+    //It is set to null after the position in the file, so a thread reading it sees where the values are
+    private volatile double[] fitnesses;
+    private final int numberOfCars;
+    private final double medianFitness;
+    private final double moyenneFitness;
+    private final double bestFitness;
+    private final double worstFitness;
+    private final double firstQuartileFitness;
+    private final double thirdQuartileFitness;
     private int generationNumber;
 
+    //Where the fitness values are when they are not in memory
+    private FitnessHistoryFile historyFile;
+    private long filePosition;
+    //The values in a results file mapped in memory, null if they are not read from one
+    private DoubleBuffer mappedFitnesses;
+
     public Generation(int generationNumber, ArrayList<Espece> especes){
-        this.especes = new ArrayList<>(especes);
+        this(generationNumber, getFitnesses(especes));
+    }
+
+    /**
+     * @param generationNumber the number of the generation
+     * @param fitnesses the fitness of every car, in any order. The array is kept
+     */
+    public Generation(int generationNumber, double[] fitnesses){
+        this.generationNumber = generationNumber;
+        this.numberOfCars = fitnesses.length;
+
+        //Sort from the best
+        Arrays.sort(fitnesses);
+        for(int i = 0 ; i < fitnesses.length / 2 ; i++){
+            double fitness = fitnesses[i];
+            fitnesses[i] = fitnesses[fitnesses.length - 1 - i];
+            fitnesses[fitnesses.length - 1 - i] = fitness;
+        }
+        this.fitnesses = fitnesses;
+
+        double total = 0;
+        for(double fitness : fitnesses){
+            total += fitness;
+        }
+        this.moyenneFitness = total / fitnesses.length;
+
+        this.medianFitness = this.calculatePercentile(0.5);
+        this.bestFitness = this.calculatePercentile(1);
+        this.worstFitness = this.calculatePercentile(0);
+        this.firstQuartileFitness = this.calculatePercentile(0.25);
+        this.thirdQuartileFitness = this.calculatePercentile(0.75);
+    }
+
+    /**
+     * Creates a generation read from a results file
+     * @param generationNumber the number of the generation
+     * @param statistics the average, median, best, worst, first quartile and third quartile fitness
+     * @param mappedFitnesses the fitness of every car, from the best, in the mapped file
+     */
+    Generation(int generationNumber, double[] statistics, DoubleBuffer mappedFitnesses){
         this.generationNumber = generationNumber;
+        this.numberOfCars = mappedFitnesses.remaining();
+        this.moyenneFitness = statistics[0];
+        this.medianFitness = statistics[1];
+        this.bestFitness = statistics[2];
+        this.worstFitness = statistics[3];
+        this.firstQuartileFitness = statistics[4];
+        this.thirdQuartileFitness = statistics[5];
+        this.mappedFitnesses = mappedFitnesses;
+    }
+
+    private static double[] getFitnesses(ArrayList<Espece> especes){
+        double[] fitnesses = new double[especes.size()];
+        for(int i = 0 ; i < fitnesses.length ; i++){
+            fitnesses[i] = especes.get(i).getFitness();
+        }
+
+        return fitnesses;
+    }
+
+    /**
+     * @param percentile between 0 and 1
+     * @return the fitness of the car that has this part of the cars under it. The median is at 0.5
+     */
+    private double calculatePercentile(double percentile){
+        if(fitnesses.length == 0){
+            return 0;
+        }
 
-        this.calculateMedian();
-        this.calculateMoyenne();
+        int index = Math.min(fitnesses.length - 1, Math.max(0, (int)((1 - percentile) * fitnesses.length)));
+        return fitnesses[index];
     }
 
     public ArrayList<Double> getAllFitnesses(){
         ArrayList<Double> fitnessList = new ArrayList<>();
 
-        for(Espece e : this.especes){
-            //if(e.getFitness() != 0) {
-            fitnessList.add(e.getFitness());
-            //}
+        for(double fitness : this.getFitnesses()){
+            fitnessList.add(fitness);
         }
 
         return fitnessList;
     }
 
     /**
-     * Sets the value of the median fitness score
+     * @return the fitness of every car, from the best. They are read from the file if they are not in memory
      */
-    private void calculateMedian(){
-        //Start by sorting the cars by their fitness score
-        Collections.sort(this.especes);
-
-        //Get the car in the middle of the list
-        Espece medianEspece = this.especes.get((int)(especes.size() / 2));
+    public double[] getFitnesses(){
+        double[] fitnesses = this.fitnesses;
+        if(fitnesses != null){
+            return fitnesses.clone();
+        }
+        if(mappedFitnesses != null){
+            fitnesses = new double[numberOfCars];
+            mappedFitnesses.duplicate().get(fitnesses);
+            return fitnesses;
+        }
 
-        this.medianFitness = medianEspece.getFitness();
+        try {
+            return historyFile.read(filePosition, numberOfCars);
+        } catch (IOException e) {
+            System.err.println("The fitness of generation " + generationNumber + " could not be read");
+            e.printStackTrace();
+            return new double[0];
+        }
     }
 
-    private void calculateMoyenne(){
-        double total = 0;
-        for(Espece e : this.especes){
-            total += e.getFitness();
+    /**
+     * Writes the fitness values in a file and frees them from the memory
+     * @param historyFile the file to write into
+     */
+    void moveToFile(FitnessHistoryFile historyFile){
+        if(this.fitnesses == null){
+            return;
+        }
+
+        try {
+            this.filePosition = historyFile.write(this.fitnesses);
+            this.historyFile = historyFile;
+            this.fitnesses = null;
+        } catch (IOException e) {
+            System.err.println("The fitness of generation " + generationNumber + " stays in memory");
+            e.printStackTrace();
         }
-        this.moyenneFitness = total / especes.size();
     }
 
     public int getGenerationNumber() {
         return generationNumber;
     }
 
+    public int getNumberOfCars() {
+        return numberOfCars;
+    }
+
     public double getMedianFitness() {
         return medianFitness;
     }
@@ -64,4 +172,20 @@ public class Generation {
     public double getMoyenneFitness() {
         return moyenneFitness;
     }
+
+    public double getBestFitness() {
+        return bestFitness;
+    }
+
+    public double getWorstFitness() {
+        return worstFitness;
+    }
+
+    public double getFirstQuartileFitness() {
+        return firstQuartileFitness;
+    }
+
+    public double getThirdQuartileFitness() {
+        return thirdQuartileFitness;
+    }
 }
@@ -0,0 +1,66 @@
+package org.lrima.simulation;
+
+import org.lrima.utils.CSVUtils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes the fitness of every generation of a batch in a CSV file as soon as the generation ends.
+ *
+ * The batch starts with a row with the name of the algorithm. With islands, a row gives their number :
+ * the simulation i is then the island i % islands of the run i / islands. Then each row is the index of the simulation,
+ * the number of the generation and the fitness of every car of the generation, from the best.
+ *
+ * The fully connected children used to get new random weights when they were given to their car. They now keep
+ * the weights of their parents, so the fully connected results written before that change evolve differently
+ * and can't be compared with the new ones.
+ */
+class GenerationCSVWriter extends ResultsWriter {
+    private final Writer writer;
+    private final String algorithmName;
+    private final int numberOfIslands;
+
+    /**
+     * @param file the file to write into
+     * @param append true to add the rows after the ones of the batches before, false to empty the file
+     * @param algorithmName the name of the algorithm of the batch
+     * @param numberOfIslands the number of simulations that are the islands of one run, 1 if they are independent
+     * @param syncInterval the number of rows between two times the file is forced to the disk
+     */
+    GenerationCSVWriter(File file, boolean append, String algorithmName, int numberOfIslands, int syncInterval) throws IOException {
+        super(file, append, syncInterval);
+        this.writer = new BufferedWriter(new OutputStreamWriter(getOutputStream(), StandardCharsets.UTF_8));
+        this.algorithmName = algorithmName;
+        this.numberOfIslands = numberOfIslands;
+    }
+
+    @Override
+    protected void writeHeader() throws IOException {
+        CSVUtils.writeLine(writer, Arrays.asList("Algorithm", algorithmName));
+        if(numberOfIslands > 1){
+            CSVUtils.writeLine(writer, Arrays.asList("Islands", Integer.toString(numberOfIslands)));
+        }
+        CSVUtils.writeLine(writer, Arrays.asList("Simulation", "Generation", "Fitness"));
+    }
+
+    @Override
+    protected void writeGeneration(int simulationIndex, Generation generation) throws IOException {
+        double[] fitnesses = generation.getFitnesses();
+        List<String> row = new ArrayList<>(fitnesses.length + 2);
+        row.add(Integer.toString(simulationIndex));
+        row.add(Integer.toString(generation.getGenerationNumber()));
+        for(double fitness : fitnesses){
+            row.add(Double.toString(fitness));
+        }
+        CSVUtils.writeLine(writer, row, ',', '"');
+    }
+
+    @Override
+    protected void flush() throws IOException {
+        writer.flush();
+    }
+}
@@ -0,0 +1,45 @@
+package org.lrima.simulation;
+
+import org.lrima.network.interfaces.NeuralNetwork;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Carries the best networks from one island to the next one. The islands are in a ring:
+ * island i sends to island i + 1 and the last one sends to the first one.
+ *
+ * Each island has one box that holds the last migrants sent to it. Sending replaces the migrants
+ * that were not received yet, and receiving empties the box, so an island never waits for another one.
+ */
+public class MigrationMailbox {
+    private final AtomicReferenceArray<NeuralNetwork[]> boxes;
+
+    /**
+     * @param numberOfIslands the number of islands in the ring
+     */
+    public MigrationMailbox(int numberOfIslands){
+        this.boxes = new AtomicReferenceArray<>(numberOfIslands);
+    }
+
+    /**
+     * Sends migrants to the next island. They must not be used by the island sending them anymore
+     * @param island the island sending the migrants
+     * @param migrants the networks to send
+     */
+    public void send(int island, NeuralNetwork[] migrants){
+        boxes.set((island + 1) % boxes.length(), migrants);
+    }
+
+    /**
+     * Takes the migrants sent to an island
+     * @param island the island receiving the migrants
+     * @return the networks sent, null if nothing was sent since the last call
+     */
+    public NeuralNetwork[] receive(int island){
+        return boxes.getAndSet(island, null);
+    }
+
+    public int getNumberOfIslands() {
+        return boxes.length();
+    }
+}
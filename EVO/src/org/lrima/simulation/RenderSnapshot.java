@@ -0,0 +1,175 @@
+package org.lrima.simulation;
+
+import org.lrima.espece.Espece;
+import org.lrima.espece.capteur.Capteur;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+
+/**
+ * The position, orientation and color of all the cars of a simulation at one tick.
+ * The simulation copies them at the render rate, so the interface draws the cars without
+ * reading them while they move. It never changes once created.
+ *
+ * Only the cars on the screen are drawn, and they are drawn as points when they are too small to see their shape.
+ */
+public class RenderSnapshot {
+    public static final RenderSnapshot EMPTY = new RenderSnapshot(new Espece[0], new int[0], new int[0], new double[0], new int[0], -1, new int[0], new int[0]);
+
+    //Under this length on the screen in pixels, the cars are drawn as points
+    private static final int LEVEL_OF_DETAIL_PIXELS = 8;
+    //The size of the points on the screen in pixels
+    private static final int POINT_PIXELS = 2;
+    //How far from its position a part of a car can be drawn
+    private static final int CAR_REACH = Espece.ESPECES_WIDTH + Espece.ESPECES_HEIGHT;
+
+    //The cars copied, only used to know which car is clicked
+    private final Espece[] especes;
+    private final int[] x;
+    private final int[] y;
+    private final double[] orientations;
+    //The colors of the cars, in ARGB
+    private final int[] colors;
+    //The index of the selected car, -1 if there is none
+    private final int selected;
+    //The points touched by the sensors of the selected car
+    private final int[] sensorX;
+    private final int[] sensorY;
+
+    //Built by the interface the first time it needs it
+    private volatile CarGrid grid;
+
+    private RenderSnapshot(Espece[] especes, int[] x, int[] y, double[] orientations, int[] colors, int selected, int[] sensorX, int[] sensorY){
+        this.especes = especes;
+        this.x = x;
+        this.y = y;
+        this.orientations = orientations;
+        this.colors = colors;
+        this.selected = selected;
+        this.sensorX = sensorX;
+        this.sensorY = sensorY;
+    }
+
+    /**
+     * Copies the cars of a simulation
+     * @param especesClosed the cars that are dead, drawn first
+     * @param especesOpen the cars still running, drawn over the dead ones
+     * @return the snapshot
+     */
+    static RenderSnapshot of(ArrayList<Espece> especesClosed, ArrayList<Espece> especesOpen){
+        int size = especesClosed.size() + especesOpen.size();
+        if(size == 0){
+            return EMPTY;
+        }
+
+        Espece[] especes = new Espece[size];
+        int[] x = new int[size];
+        int[] y = new int[size];
+        double[] orientations = new double[size];
+        int[] colors = new int[size];
+        int selected = -1;
+        int[] sensorX = new int[0];
+        int[] sensorY = new int[0];
+
+        for(int i = 0 ; i < size ; i++){
+            Espece espece = i < especesClosed.size() ? especesClosed.get(i) : especesOpen.get(i - especesClosed.size());
+
+            especes[i] = espece;
+            Point position = espece.getPosition();
+            x[i] = position.x;
+            y[i] = position.y;
+            orientations[i] = espece.getOrientation();
+            colors[i] = espece.getColor().getRGB();
+
+            if(espece.selected && selected == -1){
+                selected = i;
+
+                ArrayList<Capteur> capteurs = espece.getCapteursList();
+                sensorX = new int[capteurs.size()];
+                sensorY = new int[capteurs.size()];
+                for(int j = 0 ; j < capteurs.size() ; j++){
+                    Point dot = capteurs.get(j).getDotPosition();
+                    sensorX[j] = dot.x;
+                    sensorY[j] = dot.y;
+                }
+            }
+        }
+
+        return new RenderSnapshot(especes, x, y, orientations, colors, selected, sensorX, sensorY);
+    }
+
+    private CarGrid getGrid(){
+        CarGrid carGrid = this.grid;
+        if(carGrid == null){
+            carGrid = new CarGrid(x, y);
+            this.grid = carGrid;
+        }
+
+        return carGrid;
+    }
+
+    /**
+     * Draws the cars in the clip of the graphics and the sensors of the selected car
+     * @param g the graphics to draw into, with the zoom and translations of the map
+     */
+    public void draw(Graphics2D g){
+        int[] visible = null;
+        Rectangle clip = g.getClipBounds();
+        if(clip != null){
+            clip.grow(CAR_REACH, CAR_REACH);
+            visible = getGrid().getCarsIn(clip);
+        }
+        int numberOfVisible = visible != null ? visible.length : x.length;
+
+        AffineTransform transform = g.getTransform();
+        if(Espece.ESPECES_WIDTH * Math.abs(transform.getScaleX()) < LEVEL_OF_DETAIL_PIXELS){
+            //The points are drawn in pixels, so they keep their size, and opaque, because drawing translucent
+            //rectangles one by one is many times slower
+            g.setTransform(new AffineTransform());
+            Point2D.Double screenPoint = new Point2D.Double();
+            int color = 0;
+            for(int j = 0 ; j < numberOfVisible ; j++){
+                int i = visible != null ? visible[j] : j;
+                if(j == 0 || colors[i] != color){
+                    color = colors[i];
+                    g.setColor(new Color(color));
+                }
+
+                Point center = Espece.getCenter(x[i], y[i], orientations[i]);
+                transform.transform(center, screenPoint);
+                g.fillRect((int)screenPoint.x - POINT_PIXELS / 2, (int)screenPoint.y - POINT_PIXELS / 2, POINT_PIXELS, POINT_PIXELS);
+            }
+            g.setTransform(transform);
+        }
+        else {
+            for(int j = 0 ; j < numberOfVisible ; j++){
+                int i = visible != null ? visible[j] : j;
+                Espece.draw(g, x[i], y[i], orientations[i], new Color(colors[i], true), i == selected);
+            }
+        }
+
+        for(int i = 0 ; i < sensorX.length ; i++){
+            Capteur.drawDot(g, sensorX[i], sensorY[i]);
+        }
+    }
+
+    /**
+     * Finds the car whose position is the closest to a point
+     * @param point the point in the coordinates of the map
+     * @return the car, null if there is no car
+     */
+    public Espece getEspeceNear(Point point){
+        int nearest = getGrid().getNearest(point);
+
+        return nearest != -1 ? especes[nearest] : null;
+    }
+
+    /**
+     * @return the number of cars in the snapshot
+     */
+    public int getNumberOfCars(){
+        return x.length;
+    }
+}
@@ -0,0 +1,75 @@
+package org.lrima.simulation;
+
+import java.io.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Writes the generations of a batch in the binary format read by {@link ResultsFile} as soon as they end.
+ * The statistics of a generation are written before its fitness values, so they can be read without reading the values.
+ */
+class ResultsBinaryWriter extends ResultsWriter {
+    private final DataOutputStream output;
+    private final boolean append;
+    private final String algorithmName;
+    private final long seed;
+    private final LinkedHashMap<String, String> options;
+
+    /**
+     * @param file the file to write into
+     * @param append true to add the results after the ones of the batches before, false to empty the file
+     * @param algorithmName the name of the algorithm of the batch
+     * @param seed the seed the random values of the batch come from
+     * @param options the options of the algorithm, by name
+     * @param syncInterval the number of generations between two times the file is forced to the disk
+     */
+    ResultsBinaryWriter(File file, boolean append, String algorithmName, long seed, LinkedHashMap<String, String> options, int syncInterval) throws IOException {
+        super(file, append, syncInterval);
+        this.output = new DataOutputStream(new BufferedOutputStream(getOutputStream()));
+        this.append = append && file.length() > 0;
+        this.algorithmName = algorithmName;
+        this.seed = seed;
+        this.options = options;
+    }
+
+    @Override
+    protected void writeHeader() throws IOException {
+        if(!append){
+            output.writeInt(ResultsFile.MAGIC);
+            output.writeInt(ResultsFile.VERSION);
+        }
+
+        output.writeByte(ResultsFile.BATCH_RECORD);
+        output.writeUTF(algorithmName);
+        output.writeLong(seed);
+        output.writeInt(options.size());
+        for(Map.Entry<String, String> option : options.entrySet()){
+            output.writeUTF(option.getKey());
+            output.writeUTF(option.getValue());
+        }
+    }
+
+    @Override
+    protected void writeGeneration(int simulationIndex, Generation generation) throws IOException {
+        double[] fitnesses = generation.getFitnesses();
+
+        output.writeByte(ResultsFile.GENERATION_RECORD);
+        output.writeInt(simulationIndex);
+        output.writeInt(generation.getGenerationNumber());
+        output.writeInt(fitnesses.length);
+        output.writeDouble(generation.getMoyenneFitness());
+        output.writeDouble(generation.getMedianFitness());
+        output.writeDouble(generation.getBestFitness());
+        output.writeDouble(generation.getWorstFitness());
+        output.writeDouble(generation.getFirstQuartileFitness());
+        output.writeDouble(generation.getThirdQuartileFitness());
+        for(double fitness : fitnesses){
+            output.writeDouble(fitness);
+        }
+    }
+
+    @Override
+    protected void flush() throws IOException {
+        output.flush();
+    }
+}
@@ -0,0 +1,170 @@
+package org.lrima.simulation;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+
+/**
+ * Reads the results written by the batches in the binary format. The file is mapped in memory:
+ * only the statistics of the generations are read when it is opened, the fitness values are read when they are asked for.
+ *
+ * The file starts with {@link #MAGIC} and {@link #VERSION}, then has records one after the other, only added at the end.
+ * A batch record is the name of the algorithm, the seed of the batch and its options.
+ * A generation record is the index of its simulation, its number, its number of cars, six statistics
+ * (average, median, best, worst, first quartile, third quartile) and the fitness of every car from the best.
+ * The generation records belong to the batch record before them. A record cut by the end of the file is ignored,
+ * so a file written by a program that stopped can be read.
+ */
+public class ResultsFile {
+    static final int MAGIC = 0x45564F52;
+    static final int VERSION = 1;
+    static final byte BATCH_RECORD = 'B';
+    static final byte GENERATION_RECORD = 'G';
+
+    private static final int NUMBER_OF_STATISTICS = 6;
+    //More simulations than a batch can have, a bigger index is a damaged record
+    private static final int MAX_SIMULATIONS_PER_BATCH = 1 << 16;
+
+    /**
+     * Reads the batches of a results file
+     * @param file the file written by the batches
+     * @return the batches, in the order they were written
+     */
+    public static ArrayList<BatchResults> read(File file) throws IOException {
+        MappedByteBuffer buffer;
+        try(RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r"); FileChannel channel = randomAccessFile.getChannel()){
+            if(channel.size() > Integer.MAX_VALUE){
+                throw new IOException("The results file " + file + " is too big to be mapped");
+            }
+            //The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if(buffer.remaining() < 8 || buffer.getInt() != MAGIC){
+            throw new IOException(file + " is not a results file");
+        }
+        int version = buffer.getInt();
+        if(version != VERSION){
+            throw new IOException("The version " + version + " of the results file " + file + " can't be read");
+        }
+
+        ArrayList<BatchResults> batches = new ArrayList<>();
+        LoadedBatch batch = null;
+        try {
+            while(buffer.hasRemaining()){
+                byte record = buffer.get();
+                if(record == BATCH_RECORD){
+                    String algorithmName = readUTF(buffer);
+                    long seed = buffer.getLong();
+                    int numberOfOptions = buffer.getInt();
+                    LinkedHashMap<String, String> options = new LinkedHashMap<>();
+                    for(int i = 0 ; i < numberOfOptions ; i++){
+                        options.put(readUTF(buffer), readUTF(buffer));
+                    }
+
+                    batch = new LoadedBatch(algorithmName, seed, options);
+                    batches.add(batch);
+                }
+                else if(record == GENERATION_RECORD && batch != null){
+                    int simulationIndex = buffer.getInt();
+                    if(simulationIndex < 0 || simulationIndex >= MAX_SIMULATIONS_PER_BATCH){
+                        throw new IOException("The results file " + file + " is damaged at byte " + (buffer.position() - 4)
+                                + ": the simulation index " + simulationIndex + " is not valid");
+                    }
+                    int generationNumber = buffer.getInt();
+                    int numberOfCars = buffer.getInt();
+                    double[] statistics = new double[NUMBER_OF_STATISTICS];
+                    for(int i = 0 ; i < statistics.length ; i++){
+                        statistics[i] = buffer.getDouble();
+                    }
+
+                    //The values stay in the file until they are asked for
+                    if(numberOfCars < 0 || (long)numberOfCars * Double.BYTES > buffer.remaining()){
+                        break;
+                    }
+                    ByteBuffer values = buffer.slice();
+                    values.limit(numberOfCars * Double.BYTES);
+                    buffer.position(buffer.position() + numberOfCars * Double.BYTES);
+
+                    batch.add(simulationIndex, new Generation(generationNumber, statistics, values.asDoubleBuffer()));
+                }
+                else {
+                    throw new IOException("The results file " + file + " is damaged at byte " + (buffer.position() - 1));
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            //The last record was not completely written
+        }
+
+        return batches;
+    }
+
+    /**
+     * Reads a string written by {@link java.io.DataOutputStream#writeUTF(String)}
+     */
+    private static String readUTF(ByteBuffer buffer) throws IOException {
+        int length = buffer.getShort() & 0xFFFF;
+        byte[] bytes = new byte[length + 2];
+        bytes[0] = (byte) (length >> 8);
+        bytes[1] = (byte) length;
+        buffer.get(bytes, 2, length);
+
+        return new DataInputStream(new ByteArrayInputStream(bytes)).readUTF();
+    }
+
+    /**
+     * A batch read from a results file
+     */
+    private static class LoadedBatch implements BatchResults {
+        private final String algorithmName;
+        private final long seed;
+        private final LinkedHashMap<String, String> options;
+        private final ArrayList<ArrayList<Generation>> simulations = new ArrayList<>();
+
+        LoadedBatch(String algorithmName, long seed, LinkedHashMap<String, String> options){
+            this.algorithmName = algorithmName;
+            this.seed = seed;
+            this.options = options;
+        }
+
+        void add(int simulationIndex, Generation generation){
+            while(simulations.size() <= simulationIndex){
+                simulations.add(new ArrayList<>());
+            }
+            simulations.get(simulationIndex).add(generation);
+        }
+
+        @Override
+        public String getAlgorithmName() {
+            return algorithmName;
+        }
+
+        @Override
+        public long getSeed() {
+            return seed;
+        }
+
+        @Override
+        public LinkedHashMap<String, String> getOptions() {
+            return options;
+        }
+
+        @Override
+        public ArrayList<SimulationInformation> getSimulationInformations() {
+            ArrayList<SimulationInformation> informations = new ArrayList<>();
+            for(ArrayList<Generation> generations : simulations){
+                informations.add(new SimulationInformation(generations));
+            }
+
+            return informations;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.lrima.simulation;
+
+import java.io.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the generations of a batch in a file as soon as they end, so the results are not lost if the program
+ * stops before the end. The generations are written by a thread of the writer, not by the simulations,
+ * and the file is forced to the disk every few generations.
+ */
+abstract class ResultsWriter {
+    private final FileOutputStream outputStream;
+    private final ExecutorService executor;
+    //Number of generations between two times the file is forced to the disk
+    private final int syncInterval;
+    private int generationsSinceSync = 0;
+
+    /**
+     * @param file the file to write into
+     * @param append true to add the results after the ones of the batches before, false to empty the file
+     * @param syncInterval the number of generations between two times the file is forced to the disk
+     */
+    ResultsWriter(File file, boolean append, int syncInterval) throws IOException {
+        if(file.getAbsoluteFile().getParentFile() != null){
+            file.getAbsoluteFile().getParentFile().mkdirs();
+        }
+
+        this.outputStream = new FileOutputStream(file, append);
+        this.syncInterval = Math.max(1, syncInterval);
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "results-" + file.getName());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return the stream of the file, to be buffered by the writer
+     */
+    protected OutputStream getOutputStream(){
+        return outputStream;
+    }
+
+    /**
+     * Writes what the batch starts with. Called from the thread of the writer
+     */
+    protected abstract void writeHeader() throws IOException;
+
+    /**
+     * Writes a generation. Called from the thread of the writer
+     * @param simulationIndex the index of the simulation in the batch
+     * @param generation the generation that ended
+     */
+    protected abstract void writeGeneration(int simulationIndex, Generation generation) throws IOException;
+
+    /**
+     * Writes what is buffered by the writer in the stream of the file
+     */
+    protected abstract void flush() throws IOException;
+
+    /**
+     * Writes the header of the batch. Returns before it is written
+     */
+    void start(){
+        this.submit(() -> {
+            this.writeHeader();
+            this.sync();
+        });
+    }
+
+    /**
+     * Adds a generation. Returns before it is written
+     * @param simulationIndex the index of the simulation in the batch
+     * @param generation the generation that ended
+     */
+    void write(int simulationIndex, Generation generation){
+        this.submit(() -> {
+            this.writeGeneration(simulationIndex, generation);
+
+            generationsSinceSync++;
+            if(generationsSinceSync >= syncInterval){
+                this.sync();
+            }
+        });
+    }
+
+    /**
+     * Writes the generations not written yet, forces them to the disk and closes the file
+     */
+    void close(){
+        this.submit(() -> {
+            this.sync();
+            outputStream.close();
+        });
+
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void sync() throws IOException {
+        this.flush();
+        outputStream.getFD().sync();
+        generationsSinceSync = 0;
+    }
+
+    private void submit(IOTask task){
+        executor.execute(() -> {
+            try {
+                task.run();
+            } catch (IOException e) {
+                System.err.println("Could not write the results in the file");
+                e.printStackTrace();
+            }
+        });
+    }
+
+    private interface IOTask {
+        void run() throws IOException;
+    }
+}
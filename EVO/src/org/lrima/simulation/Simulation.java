@@ -1,19 +1,28 @@
 package org.lrima.simulation;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
 
 import org.lrima.core.UserPrefs;
 import org.lrima.espece.Espece;
 import org.lrima.espece.capteur.Capteur;
 import org.lrima.network.interfaces.NeuralNetwork;
+import org.lrima.network.interfaces.NeuralNetworkBatch;
 import org.lrima.network.interfaces.NeuralNetworkModel;
 import org.lrima.network.interfaces.NeuralNetworkSuperviser;
 import org.lrima.map.Map;
-import org.lrima.map.Studio.Drawables.Line;
-import org.lrima.map.Studio.Drawables.Obstacle;
+import org.lrima.map.SegmentGrid;
+import org.lrima.utils.Random;
 
 public class Simulation extends Thread{
-	public static double simulationTime = 0.0;
+	//Time passed in the current generation, in ms. Each simulation has its own clock
+	private double simulationTime = 0.0;
 
 	//Stores the map information
 	//TODO: déplacer la map dans le simulationManager
@@ -24,26 +33,101 @@ public class Simulation extends Thread{
 	//Keep track of the current generation
 	private int generation = 1;
 	private int maxGenerations;
+	//The generation of the cars created by the supervisor. It is the next one when it is bred in advance
+	private volatile int breedingGeneration = 1;
 
-	//Stores the cars in the simulation
-	private ArrayList<Espece> especesOpen;
-	private ArrayList<Espece> especesClosed;
+	//Stores the cars in the simulation. The lists are replaced by the simulation thread and read by the interface
+	private volatile ArrayList<Espece> especesOpen;
+	private volatile ArrayList<Espece> especesClosed;
 
-	//Used for the main loop
-	private boolean running = true;
-	private boolean pausing = false;
+	//Used for the main loop. Also read by the threads running the episodes of the cars
+	private volatile boolean running = true;
+	private volatile boolean pausing = false;
 	private double msBetweenFrames = 10;
 
+	//Time limit of a generation in ms. 0 means the user preference is used
+	private int timeLimit = 0;
+	//Set to false to ignore the real time preference (headless runs)
+	private boolean realTimeAllowed = true;
+
+	//Number of threads updating the cars at each tick. 0 means the user preference is used
+	private int tickThreads = 0;
+	private ForkJoinPool tickPool;
+
+	//Calculates the output of all the networks at once, null if they are calculated one by one by the cars
+	private NeuralNetworkBatch networkBatch;
+	//null means the user preference is used
+	private Boolean batchedInference = null;
+	//The networks of the open cars, given to the batch at each tick
+	private NeuralNetwork[] tickNetworks = new NeuralNetwork[0];
+
+	//null means the user preference is used
+	private Boolean speculativeBreeding = null;
+	//null means the user preference is used
+	private Boolean episodeEvaluation = null;
+
+	//The best open car at the last tick and its fitness, read by the interface
+	private volatile Espece bestEspece = null;
+	private volatile double bestFitness = 0;
+	//Number of best fitnesses kept in the statistics
+	private static final int NUMBER_OF_TOP_FITNESSES = 10;
+	//The fitness of the open cars at the last copy for the interface, read by the interface
+	private volatile FitnessStatistics fitnessStatistics = FitnessStatistics.EMPTY;
+	private double[] fitnessValues = new double[0];
+
+	//Number of times per second the cars are copied for the interface. null means the user preference is used, 0 means never
+	private Integer renderRate = null;
+	//The cars as they were at the last copy, drawn by the interface
+	private volatile RenderSnapshot renderSnapshot = RenderSnapshot.EMPTY;
+	private long lastRenderSnapshot = 0;
+	//Set when the selected car changes, so it is copied even while pausing
+	private volatile boolean selectionChanged = false;
+
+	//Part of the cars of a generation kept in the elite of the steady state mode
+	private static final double ELITE_FRACTION = 0.2;
+	//null means the user preference is used
+	private Boolean steadyState = null;
+	//In the steady state mode, the best cars that died and the cars that died since the last generation was kept
+	private ArrayList<Espece> elite = new ArrayList<>();
+	private ArrayList<Espece> finishedEspeces = new ArrayList<>();
+	//The time each car started at, the cars of the first generation started at 0
+	private IdentityHashMap<Espece, Double> spawnTimes = new IdentityHashMap<>();
+
+	//Number of cars of this simulation, 0 to use the option of the algorithm
+	private int numberOfCars = 0;
+	//The islands this simulation exchanges its best networks with, null if it evolves alone
+	private MigrationMailbox mailbox;
+	private int island;
+	private int migrationInterval;
+	private int numberOfMigrants;
+	//The random stream of the cars created by this simulation, null to use Math.random()
+	private java.util.Random random;
+	//Runs the supervisor before the end of the generation, null if it always runs at the end
+	private ExecutorService breedingExecutor;
+	//The next generation bred in advance, null if it is not started
+	private Future<ArrayList<Espece>> nextEspeces;
+	//The cars that were still running when the next generation was bred, and the fitness they could not reach
+	private ArrayList<Espece> speculatedEspeces;
+	private double speculatedFitness;
+
 	//Used to trigger an action in the main loop
-    private boolean shouldResetAndAddEspece = false;
-    private boolean shouldGoToNextGeneration = false;
-    private boolean shouldRestart = false;
+    private volatile boolean shouldResetAndAddEspece = false;
+    private volatile boolean shouldGoToNextGeneration = false;
+    private volatile boolean shouldRestart = false;
 
     //The neural network that the cars in the next generation will have
     private NeuralNetworkModel algorithmModel;
+    //The supervisor of this simulation only. It is not shared with the other simulations of the batch
+    private NeuralNetworkSuperviser superviser;
 
     //Stores information about all the generations
     private ArrayList<Generation> generations;
+    //Number of generations that keep their fitness values in memory when the older ones are moved to a file
+    private static final int GENERATIONS_IN_MEMORY = 50;
+    //null means the user preference is used
+    private Boolean historyOnDisk = null;
+    //The file of the old generations, null until one is moved into it
+    private FitnessHistoryFile historyFile;
 
     private ArrayList<SimulationListener> simulationListeners = new ArrayList<>();
 
@@ -51,21 +135,31 @@ public class Simulation extends Thread{
 	 * Initialize variables
 	 */
 	public Simulation(NeuralNetworkModel algorithmModel) {
+		this(algorithmModel, Map.loadMapFromPreferences(), 0);
+	}
+
+	public Simulation(NeuralNetworkModel algorithmModel, int generationLimit){
+		this(algorithmModel, Map.loadMapFromPreferences(), generationLimit);
+	}
+
+	/**
+	 * Initialize the simulation on a map that was already loaded
+	 * @param algorithmModel the algorithm the cars use
+	 * @param map the map to put the cars into
+	 * @param generationLimit the number of generations before the simulation ends (0 for no limit)
+	 */
+	public Simulation(NeuralNetworkModel<?> algorithmModel, Map map, int generationLimit){
 		super();
 		this.algorithmModel = algorithmModel;
+		this.superviser = algorithmModel.createSuperviser();
 
-		Simulation.simulationTime = 0;
+		this.simulationTime = 0;
 		this.running = true;
 		this.generations = new ArrayList<>();
-		this.map = Map.loadMapFromPreferences();
+		this.map = map;
 
 		this.initializeCars();
 
-		this.maxGenerations = 0;
-	}
-
-	public Simulation(NeuralNetworkModel algorithmModel, int generationLimit){
-		this(algorithmModel);
 		this.maxGenerations = generationLimit;
 	}
 
@@ -73,31 +167,57 @@ public class Simulation extends Thread{
 	 * Main loop of the simulation
 	 */
 	public void run() {
+		//The cars created on the threads of the simulation draw their random values from the stream of the simulation
+		Random.setThreadRandom(random);
 		long currentTime = System.currentTimeMillis();
 		long timePassed = (long)msBetweenFrames;
-		int timeLimit = UserPrefs.getInt(UserPrefs.KEY_TIME_LIMIT);
+		int timeLimit = this.timeLimit > 0 ? this.timeLimit : UserPrefs.getInt(UserPrefs.KEY_TIME_LIMIT);
+		int numberOfThreads = this.tickThreads > 0 ? this.tickThreads : UserPrefs.getInt(UserPrefs.KEY_TICK_THREADS);
+		if(numberOfThreads > 1) {
+			tickPool = new ForkJoinPool(numberOfThreads);
+		}
+		boolean useBatch = this.batchedInference != null ? this.batchedInference : UserPrefs.getBoolean(UserPrefs.KEY_BATCHED_INFERENCE);
+		networkBatch = useBatch ? algorithmModel.createNetworkBatch() : null;
+		boolean steadyStateMode = this.steadyState != null ? this.steadyState : UserPrefs.getBoolean(UserPrefs.KEY_STEADY_STATE);
+		boolean runEpisodes = this.episodeEvaluation != null ? this.episodeEvaluation : UserPrefs.getBoolean(UserPrefs.KEY_EPISODE_EVALUATION);
+		boolean breedInAdvance = this.speculativeBreeding != null ? this.speculativeBreeding : UserPrefs.getBoolean(UserPrefs.KEY_SPECULATIVE_BREEDING);
+		if(breedInAdvance){
+			breedingExecutor = Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, this.getName() + "-breeding");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+
 		while(running) {
 			if(!pausing) {
 
-				if(especesOpen.size() != 0 && Simulation.simulationTime < timeLimit) {
-					//Add the current time to the Simulation.simulationTime
+				if(steadyStateMode && especesOpen.size() != 0) {
 					currentTime = System.currentTimeMillis();
-					Simulation.simulationTime += msBetweenFrames;
+					this.simulationTime += msBetweenFrames;
 
-					//Iterate through all the cars to get the value of the sensors
-					Iterator<Espece> iterator = especesOpen.iterator();
-					while (iterator.hasNext()){
+					this.tickAll();
+					this.replaceDeadCars(timeLimit);
 
-                        Espece espece = iterator.next();
+					this.loopEnd();
+				}
+				//In real time the cars are shown moving, so they have to advance together
+				else if(runEpisodes && !(realTimeAllowed && UserPrefs.getBoolean(UserPrefs.KEY_REAL_TIME))
+						&& especesOpen.size() != 0 && this.simulationTime < timeLimit) {
+					currentTime = System.currentTimeMillis();
+					this.runEpisodes(timeLimit);
 
-						espece.update(msBetweenFrames);
-						this.loopSetCapteur(espece);
+					this.loopEnd();
+				}
+				else if(especesOpen.size() != 0 && this.simulationTime < timeLimit) {
+					//Add the current time to the simulationTime
+					currentTime = System.currentTimeMillis();
+					this.simulationTime += msBetweenFrames;
 
+					this.tickAll();
 
-						//If the car should die, remove it from the espece open
-						if(espece.shouldDie(this.map)){
-							iterator.remove();
-						}
+					if(breedingExecutor != null && nextEspeces == null){
+						this.breedInAdvance(timeLimit);
 					}
 
 					this.loopEnd();
@@ -107,8 +227,13 @@ public class Simulation extends Thread{
 					//Goes to the next generation
 					nextGeneration();
 				}
+
+				this.findBestEspece();
 			}
-			if(UserPrefs.getBoolean(UserPrefs.KEY_REAL_TIME)) {
+			//While pausing, only when the selected car changes
+			this.publishRenderSnapshot(!pausing);
+
+			if(realTimeAllowed && UserPrefs.getBoolean(UserPrefs.KEY_REAL_TIME)) {
 				try {
 					timePassed = System.currentTimeMillis() - currentTime;
 					Simulation.sleep((long) ((msBetweenFrames - timePassed) > 0 ?msBetweenFrames - timePassed: 0));
@@ -126,6 +251,470 @@ public class Simulation extends Thread{
             }
 
 		}
+
+		this.cancelBreedingInAdvance();
+		if(breedingExecutor != null){
+			breedingExecutor.shutdown();
+			breedingExecutor = null;
+		}
+		if(tickPool != null){
+			tickPool.shutdown();
+			tickPool = null;
+		}
+		if(historyFile != null){
+			historyFile.close();
+		}
+		Random.setThreadRandom(null);
+	}
+
+	/**
+	 * Starts the supervisor in the background if the cars still running can't change the next generation anymore.
+	 * Even if a running car goes straight away from the start at full speed until the time limit,
+	 * its fitness must stay under the fitness of the dead cars deciding the next generation.
+	 * The supervisor gets copies of the running cars with their current fitness.
+	 * @param timeLimit the time limit of the generation in ms
+	 */
+	private void breedInAdvance(int timeLimit){
+		int numberOfCars = this.getNumberOfCars();
+		int decidingCars = superviser.getNumberOfDecidingCars(numberOfCars);
+		if(decidingCars <= 0 || especesClosed.size() < decidingCars || especesOpen.isEmpty()){
+			return;
+		}
+
+		//The outputs of the networks are between 0 and 1, so a car moves at most this much at each tick
+		double maxStep = 2 * msBetweenFrames * UserPrefs.getInt(UserPrefs.KEY_CAR_SPEED) / 100.0;
+		double remainingTicks = Math.ceil((timeLimit - simulationTime) / msBetweenFrames) + 1;
+		double maxReachableFitness = 0;
+		for(Espece espece : especesOpen){
+			maxReachableFitness = Math.max(maxReachableFitness, espece.getMaxReachableFitness(remainingTicks * maxStep));
+		}
+
+		double[] deadFitnesses = new double[especesClosed.size()];
+		for(int i = 0 ; i < deadFitnesses.length ; i++){
+			deadFitnesses[i] = especesClosed.get(i).getFitness();
+		}
+		Arrays.sort(deadFitnesses);
+		double decidingFitness = deadFitnesses[deadFitnesses.length - decidingCars];
+		if(maxReachableFitness >= decidingFitness){
+			return;
+		}
+
+		ArrayList<Espece> especes = new ArrayList<>(especesClosed);
+		for(Espece espece : especesOpen){
+			especes.add(new Espece(espece));
+		}
+		this.speculatedEspeces = new ArrayList<>(especesOpen);
+		this.speculatedFitness = decidingFitness;
+		this.breedingGeneration = this.generation + 1;
+		this.sendMigrants(especes);
+
+		this.nextEspeces = breedingExecutor.submit(() -> {
+			//The simulation thread doesn't draw random values until the cars are bred
+			Random.setThreadRandom(random);
+			try {
+				return this.superviser.alterEspeceListAtGenerationFinish(especes, this);
+			} finally {
+				Random.setThreadRandom(null);
+			}
+		});
+	}
+
+	/**
+	 * Gives the cars of the next generation. They come from the supervisor started in advance if there is one
+	 * @return the cars of the next generation
+	 */
+	private ArrayList<Espece> breedNextGeneration(){
+		if(nextEspeces != null){
+			try {
+				ArrayList<Espece> especes = nextEspeces.get();
+
+				for(Espece espece : speculatedEspeces){
+					if(espece.getFitness() >= speculatedFitness){
+						System.err.println("A car reached a fitness of " + espece.getFitness() + " after generation " + (this.generation - 1)
+								+ " was bred in advance, under the fitness of " + speculatedFitness + ". The car speed preference was probably changed");
+					}
+				}
+
+				return especes;
+			} catch (InterruptedException | ExecutionException e) {
+				System.err.println("The next generation could not be bred in advance");
+				e.printStackTrace();
+			} finally {
+				nextEspeces = null;
+				speculatedEspeces = null;
+			}
+		}
+
+		this.breedingGeneration = this.generation;
+		this.sendMigrants(especesClosed);
+		return this.superviser.alterEspeceListAtGenerationFinish(especesClosed, this);
+	}
+
+	/**
+	 * Sends copies of the networks of the best cars to the next island, every migrationInterval generations
+	 * @param especes the cars of the generation that is finished
+	 */
+	private void sendMigrants(ArrayList<Espece> especes){
+		int finishedGeneration = this.breedingGeneration - 1;
+		if(mailbox == null || finishedGeneration % migrationInterval != 0){
+			return;
+		}
+
+		ArrayList<Espece> bestEspeces = new ArrayList<>(especes);
+		Collections.sort(bestEspeces);
+
+		NeuralNetwork[] migrants = new NeuralNetwork[Math.min(numberOfMigrants, bestEspeces.size())];
+		for(int i = 0 ; i < migrants.length ; i++){
+			//The supervisor mutates the networks it keeps, the island receiving them gets copies
+			migrants[i] = bestEspeces.get(i).getNeuralNetwork().copy();
+		}
+		mailbox.send(island, migrants);
+	}
+
+	/**
+	 * Replaces the last cars of the new generation by the migrants sent by the previous island.
+	 * The supervisors add the new children at the end, so the cars kept from the last generation stay.
+	 */
+	private void receiveMigrants(){
+		if(mailbox == null){
+			return;
+		}
+		NeuralNetwork[] migrants = mailbox.receive(island);
+		if(migrants == null){
+			return;
+		}
+
+		int numberOfSensors = (int) algorithmModel.getSimulationOption(NeuralNetworkModel.KEY_NB_SENSORS);
+		double mutationChance = (double) algorithmModel.getGeneticOption(NeuralNetworkModel.KEY_MUTATION_CHANCE);
+		double weightModifChance = (double) algorithmModel.getGeneticOption(NeuralNetworkModel.KEY_WEIGHT_MODIFICATION_CHANCE);
+
+		for(int i = 0 ; i < migrants.length && i < especesOpen.size() ; i++){
+			Espece espece = new Espece(this);
+			espece.setNumberSensor(numberOfSensors);
+
+			migrants[i].setMutationChance(mutationChance);
+			migrants[i].setWeightModificationChance(weightModifChance);
+			espece.setNeuralNetwork(migrants[i]);
+
+			especesOpen.set(especesOpen.size() - 1 - i, espece);
+		}
+	}
+
+	/**
+	 * Waits for the supervisor started in advance and ignores the cars it created
+	 */
+	private void cancelBreedingInAdvance(){
+		if(nextEspeces != null){
+			try {
+				nextEspeces.get();
+			} catch (InterruptedException | ExecutionException e) {
+				e.printStackTrace();
+			}
+			nextEspeces = null;
+			speculatedEspeces = null;
+		}
+	}
+
+	/**
+	 * Updates all the cars of the open set for one tick. The cars that die are moved to the closed set
+	 */
+	private void tickAll(){
+		if(networkBatch != null){
+			this.batchFeedForward();
+		}
+
+		if(tickPool != null){
+			this.parallelTick();
+		}
+		else {
+			//Iterate through all the cars to get the value of the sensors
+			Iterator<Espece> iterator = especesOpen.iterator();
+			while (iterator.hasNext()) {
+
+				Espece espece = iterator.next();
+
+				//If the car should die, move it from the espece open to the espece closed
+				if (this.tick(espece, networkBatch == null)) {
+					iterator.remove();
+					especesClosed.add(espece);
+				}
+			}
+		}
+	}
+
+	/**
+	 * In the steady state mode, replaces every car that died during this tick by a new car at the start of the map.
+	 * The cars that reach the time limit die too. Every time as many cars as in a generation died,
+	 * they are kept as a generation.
+	 * @param timeLimit the time a car can live in ms
+	 */
+	private void replaceDeadCars(int timeLimit){
+		Iterator<Espece> iterator = especesOpen.iterator();
+		while(iterator.hasNext()){
+			Espece espece = iterator.next();
+			Double spawnTime = spawnTimes.get(espece);
+			if(simulationTime - (spawnTime != null ? spawnTime : 0) >= timeLimit){
+				espece.kill();
+				iterator.remove();
+				especesClosed.add(espece);
+			}
+		}
+
+		for(Espece deadEspece : especesClosed){
+			//The supervisor can start the dead car again, the generation and the elite keep a copy
+			Espece copy = new Espece(deadEspece);
+			finishedEspeces.add(copy);
+			this.addToElite(copy);
+
+			Espece replacement = superviser.breedReplacement(elite, deadEspece, this);
+			replacement.resetEspece();
+			replacement.tpLikeNew();
+			replacement.setFitness(0);
+			spawnTimes.remove(deadEspece);
+			spawnTimes.put(replacement, simulationTime);
+			especesOpen.add(replacement);
+
+			if(finishedEspeces.size() >= this.getNumberOfCars()){
+				this.addGeneration(new Generation(this.generation, finishedEspeces));
+				for(SimulationListener simulationListener : simulationListeners){
+					simulationListener.onNextGeneration();
+				}
+
+				this.generation++;
+				this.breedingGeneration = this.generation;
+				finishedEspeces = new ArrayList<>();
+
+				if(this.maxGenerations != 0 && this.generation > this.maxGenerations){
+					especesClosed.clear();
+					this.simulationEnd();
+					return;
+				}
+			}
+		}
+		especesClosed.clear();
+	}
+
+	/**
+	 * Adds a dead car to the elite if it is good enough. The elite stays sorted from the best
+	 * @param espece the dead car
+	 */
+	private void addToElite(Espece espece){
+		int position = Collections.binarySearch(elite, espece);
+		elite.add(position < 0 ? -position - 1 : position, espece);
+
+		int eliteSize = Math.max(1, (int)(this.getNumberOfCars() * ELITE_FRACTION));
+		while(elite.size() > eliteSize){
+			elite.remove(elite.size() - 1);
+		}
+	}
+
+	/**
+	 * Updates one car for the current tick. The cars never interact with each other
+	 * so this can be called on multiple cars at the same time.
+	 * @param espece the car to update
+	 * @param feedForward false if the batch already gave the output of the network to the car
+	 * @return true if the car died during this tick
+	 */
+	private boolean tick(Espece espece, boolean feedForward){
+		espece.update(msBetweenFrames, feedForward);
+		this.loopSetCapteur(espece);
+
+		return espece.shouldDie(this.map);
+	}
+
+	/**
+	 * Runs the rest of the generation for every car on its own, until it dies or reaches the time limit.
+	 * The cars never interact, so a car doesn't have to wait for the others at every tick.
+	 * On the tick pool, a thread that finishes its cars takes cars from the other threads.
+	 *
+	 * The cars do the same ticks as in the main loop, each car with its own time. The dead cars are then moved
+	 * to the closed set in the order they would have died in, so the next generation is the same.
+	 * A pause stops the cars at their current tick, and the actions of the main loop end the episodes.
+	 * @param timeLimit the time limit of the generation in ms
+	 */
+	private void runEpisodes(int timeLimit){
+		//The time after each tick, added the same way as in the main loop
+		ArrayList<Double> timeList = new ArrayList<>();
+		for(double time = this.simulationTime ; time < timeLimit ; ){
+			time += msBetweenFrames;
+			timeList.add(time);
+		}
+		double[] times = new double[timeList.size()];
+		for(int i = 0 ; i < times.length ; i++){
+			times[i] = timeList.get(i);
+		}
+
+		Espece[] especes = especesOpen.toArray(new Espece[0]);
+		//The tick where each car died, 0 if it is still alive at the time limit
+		int[] deathTicks = new int[especes.length];
+
+		if(tickPool != null){
+			tickPool.invoke(new EpisodeTask(especes, deathTicks, times, 0, especes.length));
+		}
+		else{
+			for(int i = 0 ; i < especes.length ; i++){
+				deathTicks[i] = this.runEpisode(especes[i], times);
+			}
+		}
+
+		//Every car that died at a tick, in the order of the open set
+		ArrayList<Espece> stillAlive = new ArrayList<>();
+		ArrayList<ArrayList<Espece>> deadAtTick = new ArrayList<>();
+		for(int i = 0 ; i < especes.length ; i++){
+			if(deathTicks[i] == 0){
+				stillAlive.add(especes[i]);
+				continue;
+			}
+			while(deadAtTick.size() < deathTicks[i]){
+				deadAtTick.add(new ArrayList<>());
+			}
+			deadAtTick.get(deathTicks[i] - 1).add(especes[i]);
+		}
+		for(ArrayList<Espece> dead : deadAtTick){
+			especesClosed.addAll(dead);
+		}
+		especesOpen = stillAlive;
+
+		//The main loop stops when the last car dies
+		int lastTick = stillAlive.isEmpty() ? deadAtTick.size() : times.length;
+		if(lastTick > 0){
+			this.simulationTime = times[lastTick - 1];
+		}
+	}
+
+	/**
+	 * Updates a car until it dies
+	 * @param espece the car to update
+	 * @param times the time of the simulation after each tick left before the time limit
+	 * @return the tick where the car died, starting at 1. 0 if it is still alive after the last tick or if the episode was stopped
+	 */
+	private int runEpisode(Espece espece, double[] times){
+		try {
+			for(int tick = 1 ; tick <= times.length ; tick++){
+				while(pausing && running){
+					try {
+						Thread.sleep(10);
+					} catch (InterruptedException e) {
+						e.printStackTrace();
+					}
+				}
+				if(!running || shouldGoToNextGeneration || shouldRestart || shouldResetAndAddEspece){
+					return 0;
+				}
+
+				//The car dies at the time of its own tick, the simulation time only changes after all the episodes
+				espece.setEpisodeTime(times[tick - 1]);
+				//The batch needs all the cars at the same tick, each car calculates its own network
+				if(this.tick(espece, true)){
+					return tick;
+				}
+			}
+
+			return 0;
+		}
+		finally {
+			espece.setEpisodeTime(Double.NaN);
+		}
+	}
+
+	/**
+	 * Splits the cars between the threads of the tick pool, down to one car per task
+	 */
+	private class EpisodeTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final Espece[] especes;
+		private final int[] deathTicks;
+		private final double[] times;
+		private final int from, to;
+
+		EpisodeTask(Espece[] especes, int[] deathTicks, double[] times, int from, int to){
+			this.especes = especes;
+			this.deathTicks = deathTicks;
+			this.times = times;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if(to - from == 1){
+				deathTicks[from] = runEpisode(especes[from], times);
+			}
+			else if(to - from > 1){
+				int middle = (from + to) >>> 1;
+				invokeAll(new EpisodeTask(especes, deathTicks, times, from, middle),
+						new EpisodeTask(especes, deathTicks, times, middle, to));
+			}
+		}
+	}
+
+	/**
+	 * Gives the output of their network to all the cars of the open set at once
+	 */
+	private void batchFeedForward(){
+		if(tickNetworks.length < especesOpen.size()){
+			tickNetworks = new NeuralNetwork[especesOpen.size()];
+		}
+		for(int i = 0 ; i < especesOpen.size() ; i++){
+			tickNetworks[i] = especesOpen.get(i).getNeuralNetwork();
+		}
+
+		networkBatch.feedForward(tickNetworks, especesOpen.size());
+	}
+
+	/**
+	 * Updates all the cars of the open set on the tick pool and waits for all of them.
+	 * The dead cars are then moved to the closed set in the same order as the sequential loop.
+	 */
+	private void parallelTick(){
+		Espece[] especes = especesOpen.toArray(new Espece[0]);
+		boolean[] dead = new boolean[especes.length];
+
+		tickPool.invoke(new TickTask(especes, dead, 0, especes.length));
+
+		ArrayList<Espece> stillAlive = new ArrayList<>(especes.length);
+		for(int i = 0 ; i < especes.length ; i++){
+			if(dead[i]){
+				especesClosed.add(especes[i]);
+			}
+			else{
+				stillAlive.add(especes[i]);
+			}
+		}
+		especesOpen = stillAlive;
+	}
+
+	/**
+	 * Splits the cars of a tick between the threads of the tick pool
+	 */
+	private class TickTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		//Under this number of cars, the task doesn't split anymore
+		private static final int MIN_CARS_PER_TASK = 8;
+
+		private final Espece[] especes;
+		private final boolean[] dead;
+		private final int from, to;
+
+		TickTask(Espece[] especes, boolean[] dead, int from, int to){
+			this.especes = especes;
+			this.dead = dead;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if(to - from <= MIN_CARS_PER_TASK){
+				for(int i = from ; i < to ; i++){
+					dead[i] = tick(especes[i], networkBatch == null);
+				}
+			}
+			else{
+				int middle = (from + to) >>> 1;
+				invokeAll(new TickTask(especes, dead, from, middle), new TickTask(especes, dead, middle, to));
+			}
+		}
 	}
 
 
@@ -152,14 +741,10 @@ public class Simulation extends Thread{
 	 * Used in the main loop to set the value of the sensors
 	 */
 	private void loopSetCapteur(Espece espece){
+		SegmentGrid segmentGrid = map.getGeometry().getSegmentGrid();
 		for(Capteur capteur : espece.getCapteursList()) {
 			capteur.reset();
-			for (Obstacle obstacle : map.getObstacles()) {
-				for (Line line : obstacle.getLines()) {
-					double capteurValue = line.getCapteurValue(capteur);
-					capteur.setValue(capteurValue);
-				}
-			}
+			capteur.setValue(segmentGrid.getCapteurValue(capteur));
 		}
 	}
 
@@ -170,7 +755,7 @@ public class Simulation extends Thread{
 	 */
 	public void nextGeneration(){
         //Add the generation to the array of generationInformation
-		this.generations.add(new Generation(this.generation, this.getClonedEspeceSet()));
+		this.addGeneration(new Generation(this.generation, this.getAllEspeces()));
 
 		for(SimulationListener simulationListener : simulationListeners){
 			simulationListener.onNextGeneration();
@@ -192,8 +777,9 @@ public class Simulation extends Thread{
 
 
         //Reset the arrays
-		especesOpen = new ArrayList<Espece>(this.algorithmModel.getSuperviser().alterEspeceListAtGenerationFinish(especesClosed, this));
+		especesOpen = new ArrayList<Espece>(this.breedNextGeneration());
         especesClosed = new ArrayList<Espece>();
+		this.receiveMigrants();
 
 
 		for(Espece e : especesOpen){
@@ -202,8 +788,13 @@ public class Simulation extends Thread{
 			e.setFitness(0);
 		}
 
+		//The networks were mutated
+		if(networkBatch != null){
+			networkBatch.invalidate();
+		}
+
         //Reset the time of the simulation
-        Simulation.simulationTime = 0;
+        this.simulationTime = 0;
 
 		if(this.maxGenerations != 0 && this.generation > this.maxGenerations){
 			this.simulationEnd();
@@ -215,7 +806,7 @@ public class Simulation extends Thread{
 		this.especesClosed = new ArrayList<>();
 		this.generation = 1;
 		this.generations = new ArrayList<>();
-		Simulation.simulationTime = 0;
+		this.simulationTime = 0;
 		//TODO : restarted has been deleted
 
 		this.initializeCars();
@@ -226,12 +817,30 @@ public class Simulation extends Thread{
 	 * max number of car (set by the user in settings)
 	 */
 	private void initializeCars() {
+		//It is also called from the thread that creates the simulation
+		java.util.Random callerRandom = Random.getThreadRandom();
+		Random.setThreadRandom(random);
+		try {
+			this.createCars();
+		}
+		finally {
+			Random.setThreadRandom(callerRandom);
+		}
+	}
+
+	private void createCars() {
+		this.cancelBreedingInAdvance();
+		this.breedingGeneration = this.generation;
+		elite.clear();
+		finishedEspeces.clear();
+		spawnTimes.clear();
+
 		//Reset both car arrays
         especesOpen = new ArrayList<>();
 		especesClosed = new ArrayList<>();
 
 		//Retreive the number of cars the user want
-		int numberOfCar = (int) algorithmModel.getSimulationOption(NeuralNetworkModel.KEY_NB_CARS);
+		int numberOfCar = this.getNumberOfCars();
 		int numberOfSensors = (int) algorithmModel.getSimulationOption(NeuralNetworkModel.KEY_NB_SENSORS);
 		double mutationChance = (double) algorithmModel.getGeneticOption(NeuralNetworkModel.KEY_MUTATION_CHANCE);
 		double weightModifChance = (double) algorithmModel.getGeneticOption(NeuralNetworkModel.KEY_WEIGHT_MODIFICATION_CHANCE);
@@ -249,24 +858,87 @@ public class Simulation extends Thread{
 		}
 
 		currentBest = especesOpen.get(0);
+
+		if(networkBatch != null){
+			networkBatch.invalidate();
+		}
+		this.findBestEspece();
 	}
 
 	/**
-	 * Find the best fitness in all the cars
-	 * @return the fitness of the best car
+	 * Finds the best open car of this tick in one pass, so the interface never has to look for it while the cars move
 	 */
-	public double getBestFitness(){
-		double highestFitness = 0;
+	private void findBestEspece(){
+		Espece best = null;
+		double fitness = 0;
+		for(int i = 0 ; i < especesOpen.size() ; i++){
+			Espece espece = especesOpen.get(i);
+			if(best == null || espece.getFitness() > fitness){
+				best = espece;
+				fitness = espece.getFitness();
+			}
+		}
+
+		this.bestFitness = fitness;
+		this.bestEspece = best;
+	}
 
-		if(especesOpen.size() > 0) {
-			ArrayList<Espece> especes = new ArrayList<>(this.especesOpen);
-			Collections.sort(especes);
+	/**
+	 * Copies the cars for the interface if enough time passed since the last copy
+	 * @param moved false if the cars did not move since the last call. They are copied only if the selected car changed
+	 */
+	private void publishRenderSnapshot(boolean moved){
+		if(!moved && !selectionChanged){
+			return;
+		}
 
-			return especes.get(0).getFitness();
+		int rate = this.renderRate != null ? this.renderRate : UserPrefs.getInt(UserPrefs.KEY_RENDER_RATE);
+		if(rate <= 0){
+			return;
 		}
-		else{
-			return 0.0;
+
+		long now = System.nanoTime();
+		if(now - lastRenderSnapshot < 1_000_000_000L / rate){
+			return;
 		}
+
+		lastRenderSnapshot = now;
+		selectionChanged = false;
+		//The median and the top fitnesses need a sort, so they are only calculated for the interface
+		if(fitnessValues.length < especesOpen.size()){
+			fitnessValues = new double[especesOpen.size()];
+		}
+		this.fitnessStatistics = FitnessStatistics.of(especesOpen, NUMBER_OF_TOP_FITNESSES, fitnessValues);
+		this.renderSnapshot = RenderSnapshot.of(especesClosed, especesOpen);
+	}
+
+	/**
+	 * @return the cars as they were at the last copy for the interface
+	 */
+	public RenderSnapshot getRenderSnapshot(){
+		return renderSnapshot;
+	}
+
+	/**
+	 * Find the best fitness in all the cars
+	 * @return the fitness of the best car at the last tick
+	 */
+	public double getBestFitness(){
+		return bestFitness;
+	}
+
+	/**
+	 * @return the car with the best fitness at the last tick, null if there is none
+	 */
+	public Espece getBestEspece(){
+		return bestEspece;
+	}
+
+	/**
+	 * @return the best, median and top fitnesses of the open cars at the last copy for the interface
+	 */
+	public FitnessStatistics getFitnessStatistics(){
+		return fitnessStatistics;
 	}
 
 	/**
@@ -286,6 +958,7 @@ public class Simulation extends Thread{
     public void setSelected(Espece e){
 		resetSelected();
 		e.selected = true;
+		selectionChanged = true;
 	}
 
 	/**
@@ -316,18 +989,29 @@ public class Simulation extends Thread{
 	}
 
 	/**
-	 * Clone all the species inside the closed and open set
-	 * @return The list containing the cloned cars
+	 * Keeps the fitness of a finished generation. When the history is kept on the disk,
+	 * the values of the older generations are moved to a file.
+	 * @param generation the finished generation
 	 */
-	private ArrayList<Espece> getClonedEspeceSet(){
-		ArrayList<Espece> allSpecies = new ArrayList<>(this.getAllEspeces());
-		ArrayList<Espece> clonedList = new ArrayList<>();
+	private void addGeneration(Generation generation){
+		this.generations.add(generation);
 
-		for(Espece e : allSpecies){
-			clonedList.add(new Espece(e));
+		boolean onDisk = this.historyOnDisk != null ? this.historyOnDisk : UserPrefs.getBoolean(UserPrefs.KEY_HISTORY_ON_DISK);
+		if(!onDisk || generations.size() <= GENERATIONS_IN_MEMORY){
+			return;
 		}
 
-		return clonedList;
+		if(historyFile == null){
+			try {
+				historyFile = new FitnessHistoryFile();
+			} catch (IOException e) {
+				System.err.println("The history file could not be created, the generations stay in memory");
+				e.printStackTrace();
+				this.historyOnDisk = false;
+				return;
+			}
+		}
+		generations.get(generations.size() - 1 - GENERATIONS_IN_MEMORY).moveToFile(historyFile);
 	}
 
 	public void terminate(){
@@ -370,6 +1054,13 @@ public class Simulation extends Thread{
 		return generation;
 	}
 
+	/**
+	 * @return the generation of the cars created now. It is the next generation when the supervisor runs in advance
+	 */
+	public int getBreedingGeneration() {
+		return breedingGeneration;
+	}
+
 	public void setRunning(boolean running) {
 		this.running = running;
 	}
@@ -416,4 +1107,128 @@ public class Simulation extends Thread{
 	public ArrayList<Generation> getGenerations() {
 		return generations;
 	}
+
+	/**
+	 * @return the time passed in the current generation, in ms
+	 */
+	public double getSimulationTime() {
+		return simulationTime;
+	}
+
+	/**
+	 * Overrides the time limit preference for this simulation
+	 * @param timeLimit the time limit of a generation in ms. 0 to use the user preference
+	 */
+	public void setTimeLimit(int timeLimit) {
+		this.timeLimit = timeLimit;
+	}
+
+	public void setRealTimeAllowed(boolean realTimeAllowed) {
+		this.realTimeAllowed = realTimeAllowed;
+	}
+
+	/**
+	 * Overrides the number of threads preference for this simulation
+	 * @param tickThreads the number of threads updating the cars. 0 to use the user preference
+	 */
+	public void setTickThreads(int tickThreads) {
+		this.tickThreads = tickThreads;
+	}
+
+	/**
+	 * The threads updating the cars. The supervisors also use them between two generations
+	 * @return the pool, null if the simulation runs on one thread
+	 */
+	public ForkJoinPool getTickPool() {
+		return tickPool;
+	}
+
+	/**
+	 * Overrides the batched inference preference for this simulation
+	 * @param batchedInference true to calculate the networks of all the cars at once when the algorithm allows it
+	 */
+	public void setBatchedInference(boolean batchedInference) {
+		this.batchedInference = batchedInference;
+	}
+
+	/**
+	 * Overrides the speculative breeding preference for this simulation
+	 * @param speculativeBreeding true to breed the next generation as soon as the cars still running can't change it
+	 */
+	public void setSpeculativeBreeding(boolean speculativeBreeding) {
+		this.speculativeBreeding = speculativeBreeding;
+	}
+
+	/**
+	 * Changes the number of cars of this simulation and creates them again. Must be called before the simulation starts
+	 * @param numberOfCars the number of cars, 0 to use the option of the algorithm
+	 */
+	public void setNumberOfCars(int numberOfCars) {
+		this.numberOfCars = numberOfCars;
+		this.initializeCars();
+	}
+
+	/**
+	 * @return the number of cars in a generation of this simulation
+	 */
+	public int getNumberOfCars() {
+		return numberOfCars > 0 ? numberOfCars : (int) algorithmModel.getSimulationOption(NeuralNetworkModel.KEY_NB_CARS);
+	}
+
+	/**
+	 * Makes all the random values of this simulation come from a seeded stream and creates the cars again.
+	 * Two simulations with the same seed and the same options give the same cars, whatever the number of threads.
+	 * Must be called before the simulation starts
+	 * @param seed the seed of the stream
+	 */
+	public void setSeed(long seed) {
+		this.random = new java.util.Random(seed);
+		this.initializeCars();
+	}
+
+	/**
+	 * Makes this simulation an island that exchanges its best networks with the other islands of a mailbox
+	 * @param mailbox the mailbox shared by the islands
+	 * @param island the index of this island in the mailbox
+	 * @param migrationInterval the number of generations between two migrations
+	 * @param numberOfMigrants the number of networks sent at each migration
+	 */
+	public void setIsland(MigrationMailbox mailbox, int island, int migrationInterval, int numberOfMigrants) {
+		this.mailbox = mailbox;
+		this.island = island;
+		this.migrationInterval = Math.max(1, migrationInterval);
+		this.numberOfMigrants = numberOfMigrants;
+	}
+
+	/**
+	 * Overrides the preference that moves the fitness of the old generations to a file
+	 * @param historyOnDisk true to keep only the last generations in memory
+	 */
+	public void setHistoryOnDisk(boolean historyOnDisk) {
+		this.historyOnDisk = historyOnDisk;
+	}
+
+	/**
+	 * Overrides the preference of the number of times per second the cars are copied for the interface
+	 * @param renderRate the number of copies per second, 0 to never copy them (headless runs)
+	 */
+	public void setRenderRate(int renderRate) {
+		this.renderRate = renderRate;
+	}
+
+	/**
+	 * Overrides the steady state preference for this simulation
+	 * @param steadyState true to replace every car as soon as it dies instead of waiting for the end of the generation
+	 */
+	public void setSteadyState(boolean steadyState) {
+		this.steadyState = steadyState;
+	}
+
+	/**
+	 * Overrides the episode evaluation preference for this simulation
+	 * @param episodeEvaluation true to run every car on its own until it dies instead of all the cars tick by tick
+	 */
+	public void setEpisodeEvaluation(boolean episodeEvaluation) {
+		this.episodeEvaluation = episodeEvaluation;
+	}
 }
@@ -1,54 +1,150 @@
 package org.lrima.simulation;
 
 import org.lrima.core.UserPrefs;
+import org.lrima.map.Map;
 import org.lrima.network.interfaces.NeuralNetworkModel;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.Queue;
 
-public class SimulationBatch implements SimulationListener, BatchListener {
+public class SimulationBatch implements BatchListener, BatchResults {
     private Simulation[] simulations;
-    private int currentSimulation = 0;
+    //The first simulation that is not finished. It is the one displayed
+    private volatile int currentSimulation = 0;
     private int numberInBatch;
-    private NeuralNetworkModel algorithmModel;
+    //Number of simulations that are the islands of one population, 1 if the simulations are independent
+    private int numberOfIslands = 1;
+    private int migrationInterval = 0;
+    private int numberOfMigrants = 0;
+    private NeuralNetworkModel<?> algorithmModel;
+    //The seed the random streams of the simulations come from
+    private long seed;
     private ArrayList<SimulationInformation> simulationInformations = new ArrayList<>();
 
+    //Number of simulations running at the same time
+    private int parallelism = 1;
+    private int nextSimulationToStart = 0;
+    private int finishedSimulations = 0;
+    //Information of the finished simulations, by index. Copied in order into simulationInformations
+    private SimulationInformation[] finishedInformations;
+
     private ArrayList<BatchListener> batchListeners = new ArrayList<>();
 
     private final int maxGeneration;
     private ArrayList<SimulationListener> simulationListeners = new ArrayList<>();
 
-    public SimulationBatch(NeuralNetworkModel algorithmModel, int numberInBatch){
+    //The CSV file the generations are written into when they end, null to not write them.
+    //They are also written in the binary format in the file with the same name and the .evo extension
+    private File resultsFile;
+    private boolean appendResults;
+    //Number of generations between two times the files are forced to the disk. null means the user preference is used
+    private Integer resultsSyncInterval = null;
+    private ArrayList<ResultsWriter> resultsWriters = new ArrayList<>();
+
+    /**
+     * Creates a batch with the options of the user preferences. With the islands, each run is a population
+     * split in as many simulations as there are islands
+     * @param algorithmModel the algorithm to simulate
+     * @param numberOfRuns the number of independent runs of the algorithm
+     */
+    public SimulationBatch(NeuralNetworkModel algorithmModel, int numberOfRuns){
+        int migrationInterval = UserPrefs.getInt(UserPrefs.KEY_ISLAND_MIGRATION_INTERVAL);
+        int numberOfIslands = migrationInterval > 0 ? UserPrefs.getInt(UserPrefs.KEY_NUMBER_OF_ISLANDS) : 1;
+        int numberInBatch = numberOfRuns * numberOfIslands;
+
         this.simulations = new Simulation[numberInBatch];
         this.numberInBatch = numberInBatch;
         this.algorithmModel = algorithmModel;
 
         this.maxGeneration = (int)UserPrefs.getOption(UserPrefs.KEY_NUMBER_GENERATION_PER_SIMULATION).getValue();
+        this.parallelism = UserPrefs.getInt(UserPrefs.KEY_SIMULATIONS_IN_PARALLEL);
+        this.finishedInformations = new SimulationInformation[numberInBatch];
 
         for(int i = 0 ; i < simulations.length ; i++){
             simulations[i] = new Simulation(algorithmModel, maxGeneration);
-            simulations[i].addSimulationListener(this);
+            this.listenTo(i);
         }
+
+        this.setIslands(numberOfIslands, migrationInterval, UserPrefs.getInt(UserPrefs.KEY_ISLAND_MIGRANTS));
+        int seed = UserPrefs.getInt(UserPrefs.KEY_SEED);
+        this.setSeed(seed != 0 ? seed : newSeed());
     }
 
-    public void startBatch(){
-        simulations[0].start();
+    /**
+     * Creates a batch that doesn't read the map and the number of generations from the user preferences
+     * @param algorithmModel the algorithm to simulate
+     * @param numberInBatch the number of simulations in the batch
+     * @param map the map used by all the simulations
+     * @param maxGeneration the number of generations of each simulation
+     * @param timeLimit the time limit of a generation in ms (0 to use the user preference)
+     */
+    public SimulationBatch(NeuralNetworkModel<?> algorithmModel, int numberInBatch, Map map, int maxGeneration, int timeLimit){
+        this.simulations = new Simulation[numberInBatch];
+        this.numberInBatch = numberInBatch;
+        this.algorithmModel = algorithmModel;
+        this.maxGeneration = maxGeneration;
+        this.finishedInformations = new SimulationInformation[numberInBatch];
+
+        for(int i = 0 ; i < simulations.length ; i++){
+            simulations[i] = new Simulation(algorithmModel, map, maxGeneration);
+            simulations[i].setTimeLimit(timeLimit);
+            simulations[i].setRealTimeAllowed(false);
+            simulations[i].setRenderRate(0);
+            this.listenTo(i);
+        }
+
+        this.setSeed(newSeed());
+    }
+
+    /**
+     * @return a seed for a batch that is not given one, so its results can still be reproduced
+     */
+    private static long newSeed(){
+        return new java.util.Random().nextLong();
     }
 
+    /**
+     * Adds a listener to a simulation of the batch that knows which simulation it listens to
+     * @param simulationIndex the index of the simulation
+     */
+    private void listenTo(int simulationIndex){
+        simulations[simulationIndex].addSimulationListener(new SimulationListener() {
+            @Override
+            public void onNextGeneration() {
+                SimulationBatch.this.onNextGeneration(simulationIndex);
+            }
 
-    public double[] getAverageFitnessPerGeneration(){
-        double[] fitnesses = new double[this.simulations[0].getGenerationList().size()];
+            @Override
+            public void simulationEnded() {
+                SimulationBatch.this.simulationEnded(simulationIndex);
+            }
+        });
+    }
 
-        for(int generation = 0 ; generation < this.simulations[0].getGenerationList().size() ; generation++){
-            int simulationIndex = 0;
-            for(Simulation simulation : this.simulations){
-                fitnesses[generation] = fitnesses[generation] + simulation.getGenerationList().get(generation).getMoyenneFitness();
-                simulationIndex++;
+    /**
+     * Starts as many simulations as the parallelism allows. The others are started
+     * when a simulation ends.
+     */
+    public synchronized void startBatch(){
+        if(resultsFile != null && resultsWriters.isEmpty()){
+            int syncInterval = this.resultsSyncInterval != null ? this.resultsSyncInterval : UserPrefs.getInt(UserPrefs.KEY_RESULTS_SYNC_INTERVAL);
+            try {
+                resultsWriters.add(new GenerationCSVWriter(resultsFile, appendResults, this.getAlgorithmName(), numberOfIslands, syncInterval));
+                resultsWriters.add(new ResultsBinaryWriter(getBinaryResultsFile(), appendResults, this.getAlgorithmName(), this.getSeed(), this.getOptions(), syncInterval));
+            } catch (IOException e) {
+                System.err.println("The results will not be written in " + resultsFile.getAbsolutePath());
+                e.printStackTrace();
             }
-            fitnesses[generation] = fitnesses[generation] / (simulationIndex + 1);
+            resultsWriters.forEach(ResultsWriter::start);
         }
 
-        return fitnesses;
+        while(nextSimulationToStart < Math.min(parallelism, numberInBatch)){
+            simulations[nextSimulationToStart].start();
+            nextSimulationToStart++;
+        }
     }
 
 
@@ -64,33 +160,68 @@ public class SimulationBatch implements SimulationListener, BatchListener {
         return this.currentSimulation;
     }
 
-    @Override
-    public void simulationEnded() {
+    /**
+     * Called from the thread of a simulation when it reaches its last generation
+     * @param simulationIndex the index of the simulation that ended
+     */
+    private synchronized void simulationEnded(int simulationIndex) {
         //Add the information
-        this.addSimulationInformation();
+        this.addSimulationInformation(simulationIndex);
 
-        getCurrentSimulation().terminate();
+        simulations[simulationIndex].terminate();
+        finishedSimulations++;
 
         //the limit is hit
-        if(currentSimulation + 1 >= numberInBatch ) {
+        if(finishedSimulations >= numberInBatch) {
+            //The next batch can write in the same files
+            resultsWriters.forEach(ResultsWriter::close);
+            resultsWriters.clear();
             this.batchListeners.forEach(BatchListener::batchFinished);
+            return;
         }
-        else{
-            this.currentSimulation++;
-            this.getCurrentSimulation().start();
+
+        if(nextSimulationToStart < numberInBatch){
+            simulations[nextSimulationToStart].start();
+            nextSimulationToStart++;
+        }
+
+        //Display the first simulation that is still running
+        if(simulationIndex == currentSimulation){
+            this.currentSimulation = simulationInformations.size();
 
             this.batchListeners.forEach(BatchListener::nextSimulationInBatch);
         }
     }
 
-    private void addSimulationInformation(){
-        SimulationInformation information = new SimulationInformation(this.getCurrentSimulation().getGenerations());
-        this.simulationInformations.add(information);
+    /**
+     * Keeps the information of a finished simulation. The simulations can finish in any order,
+     * but simulationInformations stays in the order of the simulations.
+     * @param simulationIndex the index of the simulation that ended
+     */
+    private void addSimulationInformation(int simulationIndex){
+        finishedInformations[simulationIndex] = new SimulationInformation(simulations[simulationIndex].getGenerations());
+
+        while(simulationInformations.size() < numberInBatch && finishedInformations[simulationInformations.size()] != null){
+            this.simulationInformations.add(finishedInformations[simulationInformations.size()]);
+        }
     }
 
-    @Override
-    public void onNextGeneration() {
-        this.simulationListeners.forEach(SimulationListener::onNextGeneration);
+    /**
+     * Only the generations of the displayed simulation are sent to the listeners
+     * @param simulationIndex the index of the simulation that went to the next generation
+     */
+    private void onNextGeneration(int simulationIndex) {
+        ArrayList<Generation> generations = simulations[simulationIndex].getGenerationList();
+        if(!generations.isEmpty()){
+            Generation generation = generations.get(generations.size() - 1);
+            for(ResultsWriter writer : resultsWriters){
+                writer.write(simulationIndex, generation);
+            }
+        }
+
+        if(simulationIndex == currentSimulation) {
+            this.simulationListeners.forEach(SimulationListener::onNextGeneration);
+        }
     }
 
 
@@ -102,6 +233,44 @@ public class SimulationBatch implements SimulationListener, BatchListener {
         return algorithmModel;
     }
 
+    @Override
+    public String getAlgorithmName() {
+        return algorithmModel.getName();
+    }
+
+    @Override
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Seeds the random streams of the simulations of the batch and creates their cars again.
+     * Each simulation gets its own seed, drawn from this one. Must be called before the batch starts
+     * @param seed the seed of the batch
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+        java.util.Random seeds = new java.util.Random(seed);
+        for(Simulation simulation : simulations){
+            simulation.setSeed(seeds.nextLong());
+        }
+    }
+
+    @Override
+    public LinkedHashMap<String, String> getOptions() {
+        LinkedHashMap<String, String> options = new LinkedHashMap<>();
+        algorithmModel.getSimulationOption().forEach((name, option) -> options.put(name, String.valueOf(option.getValue())));
+        algorithmModel.getGeneticOption().forEach((name, option) -> options.put(name, String.valueOf(option.getValue())));
+        if(numberOfIslands > 1){
+            options.put(UserPrefs.KEY_NUMBER_OF_ISLANDS, String.valueOf(numberOfIslands));
+            options.put(UserPrefs.KEY_ISLAND_MIGRATION_INTERVAL, String.valueOf(migrationInterval));
+            options.put(UserPrefs.KEY_ISLAND_MIGRANTS, String.valueOf(numberOfMigrants));
+        }
+
+        return options;
+    }
+
+    @Override
     public ArrayList<SimulationInformation> getSimulationInformations() {
         return simulationInformations;
     }
@@ -110,10 +279,109 @@ public class SimulationBatch implements SimulationListener, BatchListener {
         return this.numberInBatch;
     }
 
+    /**
+     * @return the number of independent runs of the algorithm. With the islands, a run is made of several simulations
+     */
+    public int getNumberOfRuns() {
+        return this.numberInBatch / this.numberOfIslands;
+    }
+
+    /**
+     * @return the number of simulations that are the islands of one run, 1 if the simulations are independent
+     */
+    public int getNumberOfIslands() {
+        return numberOfIslands;
+    }
+
     public void addSimulationListener(SimulationListener simulationListener) {
         simulationListeners.add(simulationListener);
     }
 
+    /**
+     * Sets the number of simulations of the batch that run at the same time
+     * @param parallelism the number of simulations, 1 to run them one after the other
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Makes groups of simulations of the batch the islands of one population instead of independent simulations.
+     * The simulation at index i is the island i % numberOfIslands of the run i / numberOfIslands.
+     * The cars of the algorithm are split between the islands of a run and they all run at the same time.
+     * Every migrationInterval generations, each island sends copies of its best networks to the next one.
+     * Must be called before the batch starts.
+     * @param numberOfIslands the number of islands of a run. The number of simulations must be a multiple of it
+     * @param migrationInterval the number of generations between two migrations, 0 to keep the simulations independent
+     * @param numberOfMigrants the number of networks sent at each migration
+     */
+    public void setIslands(int numberOfIslands, int migrationInterval, int numberOfMigrants){
+        if(migrationInterval <= 0 || numberOfIslands < 2){
+            return;
+        }
+        if(numberInBatch % numberOfIslands != 0){
+            System.err.println("The " + numberInBatch + " simulations can't be split in runs of " + numberOfIslands + " islands, they stay independent");
+            return;
+        }
+
+        this.numberOfIslands = numberOfIslands;
+        this.migrationInterval = migrationInterval;
+        this.numberOfMigrants = numberOfMigrants;
+
+        int numberOfCars = (int) algorithmModel.getSimulationOption(NeuralNetworkModel.KEY_NB_CARS);
+        MigrationMailbox mailbox = null;
+        for(int i = 0 ; i < simulations.length ; i++){
+            int island = i % numberOfIslands;
+            if(island == 0){
+                mailbox = new MigrationMailbox(numberOfIslands);
+            }
+            //The first islands get the cars left
+            int islandCars = numberOfCars / numberOfIslands + (island < numberOfCars % numberOfIslands ? 1 : 0);
+            simulations[i].setNumberOfCars(Math.max(1, islandCars));
+            simulations[i].setIsland(mailbox, island, migrationInterval, numberOfMigrants);
+        }
+        //The islands of a run exchange their cars while they run
+        this.parallelism = Math.max(this.parallelism, numberOfIslands);
+    }
+
+    /**
+     * Writes the fitness of every generation in a CSV file as soon as it ends. Must be called before the batch starts
+     * @param resultsFile the file to write into
+     * @param append true to add the results after the ones of the batches before, false to empty the file
+     */
+    public void setResultsFile(File resultsFile, boolean append) {
+        this.resultsFile = resultsFile;
+        this.appendResults = append;
+    }
+
+    /**
+     * @return the CSV file the results are written into, null if they are not written
+     */
+    public File getResultsFile() {
+        return resultsFile;
+    }
+
+    /**
+     * @return the file the results are written into in the binary format read by {@link ResultsFile}, null if they are not written
+     */
+    public File getBinaryResultsFile() {
+        if(resultsFile == null){
+            return null;
+        }
+
+        String name = resultsFile.getName();
+        int extension = name.lastIndexOf('.');
+        return new File(resultsFile.getAbsoluteFile().getParentFile(), (extension > 0 ? name.substring(0, extension) : name) + ".evo");
+    }
+
+    /**
+     * Overrides the preference of the number of generations between two times the results are forced to the disk
+     * @param resultsSyncInterval the number of generations
+     */
+    public void setResultsSyncInterval(int resultsSyncInterval) {
+        this.resultsSyncInterval = resultsSyncInterval;
+    }
+
     @Override
     public void batchFinished() {
 
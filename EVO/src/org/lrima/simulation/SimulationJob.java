@@ -0,0 +1,201 @@
+package org.lrima.simulation;
+
+import org.lrima.Interface.options.types.OptionDouble;
+import org.lrima.Interface.options.types.OptionInt;
+import org.lrima.map.Map;
+import org.lrima.network.algorithms.AlgorithmManager;
+import org.lrima.network.annotations.AlgorithmInformation;
+import org.lrima.network.interfaces.NeuralNetworkModel;
+import org.lrima.utils.CSVUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Properties;
+
+/**
+ * Describes an experiment to run without the user interface.
+ * A job file is a properties file, for example :
+ * <pre>
+ * map=./big.map
+ * algorithms=Fully Connected, Improved NEAT
+ * population=200
+ * sensors=7
+ * generations=100
+ * timeLimit=60000
+ * simulations=10
+ * tickThreads=8
+ * simulationsInParallel=4
+ * batchedInference=false
+ * speculativeBreeding=false
+ * episodeEvaluation=false
+ * islands=4
+ * islandMigrationInterval=0
+ * islandMigrants=2
+ * steadyState=false
+ * historyOnDisk=false
+ * output=data/big-run.csv
+ * resultsSyncInterval=10
+ * seed=42
+ * </pre>
+ * Only map and algorithms are required. One batch is created for each algorithm.
+ * Without a seed, each batch uses a new one, written in its results.
+ * With an island migration interval, each of the simulations is a population split in islands,
+ * and the batch runs one simulation per island.
+ */
+public class SimulationJob {
+    public static final String KEY_MAP = "map";
+    public static final String KEY_ALGORITHMS = "algorithms";
+    public static final String KEY_POPULATION = "population";
+    public static final String KEY_SENSORS = "sensors";
+    public static final String KEY_GENERATIONS = "generations";
+    public static final String KEY_TIME_LIMIT = "timeLimit";
+    public static final String KEY_SIMULATIONS = "simulations";
+    public static final String KEY_MUTATION_CHANCE = "mutationChance";
+    public static final String KEY_WEIGHT_MODIFICATION_CHANCE = "weightModificationChance";
+    public static final String KEY_OUTPUT = "output";
+    public static final String KEY_TICK_THREADS = "tickThreads";
+    public static final String KEY_SIMULATIONS_IN_PARALLEL = "simulationsInParallel";
+    public static final String KEY_BATCHED_INFERENCE = "batchedInference";
+    public static final String KEY_SPECULATIVE_BREEDING = "speculativeBreeding";
+    public static final String KEY_EPISODE_EVALUATION = "episodeEvaluation";
+    public static final String KEY_ISLANDS = "islands";
+    public static final String KEY_ISLAND_MIGRATION_INTERVAL = "islandMigrationInterval";
+    public static final String KEY_ISLAND_MIGRANTS = "islandMigrants";
+    public static final String KEY_STEADY_STATE = "steadyState";
+    public static final String KEY_HISTORY_ON_DISK = "historyOnDisk";
+    public static final String KEY_RESULTS_SYNC_INTERVAL = "resultsSyncInterval";
+    public static final String KEY_SEED = "seed";
+
+    private final Properties properties;
+    private final File mapFile;
+
+    public SimulationJob(File jobFile) throws IOException {
+        this.properties = new Properties();
+        try(InputStream inputStream = new FileInputStream(jobFile)) {
+            this.properties.load(inputStream);
+        }
+
+        if(!properties.containsKey(KEY_MAP) || !properties.containsKey(KEY_ALGORITHMS)){
+            throw new IOException("The job file must at least define '" + KEY_MAP + "' and '" + KEY_ALGORITHMS + "'");
+        }
+
+        //The map path is relative to the job file
+        File map = new File(properties.getProperty(KEY_MAP).trim());
+        if(!map.isAbsolute() && !map.exists() && jobFile.getAbsoluteFile().getParentFile() != null){
+            map = new File(jobFile.getAbsoluteFile().getParentFile(), map.getPath());
+        }
+        this.mapFile = map;
+    }
+
+    /**
+     * Creates one batch per algorithm of the job. The batches write the results in the output file while they run
+     * @return the batches, in the order of the job file
+     */
+    public ArrayList<SimulationBatch> createBatches() throws IOException, ClassNotFoundException {
+        Map map = Map.loadMap(this.mapFile);
+        ArrayList<SimulationBatch> batches = new ArrayList<>();
+        File resultsFile = this.getOutputFile() != null ? this.getOutputFile() : CSVUtils.getNewFile();
+
+        for(String algorithmName : properties.getProperty(KEY_ALGORITHMS).split(",")){
+            NeuralNetworkModel<?> model = this.createModel(algorithmName.trim());
+            this.applyOptions(model);
+
+            int migrationInterval = getInt(KEY_ISLAND_MIGRATION_INTERVAL, 0);
+            int numberOfIslands = migrationInterval > 0 ? getInt(KEY_ISLANDS, 4) : 1;
+            SimulationBatch batch = new SimulationBatch(model, getSimulations() * numberOfIslands, map, getGenerations(), getTimeLimit());
+            batch.setParallelism(getInt(KEY_SIMULATIONS_IN_PARALLEL, 1));
+            for(Simulation simulation : batch.getSimulations()){
+                simulation.setTickThreads(getInt(KEY_TICK_THREADS, 1));
+                simulation.setBatchedInference(Boolean.parseBoolean(properties.getProperty(KEY_BATCHED_INFERENCE, "false").trim()));
+                simulation.setSpeculativeBreeding(Boolean.parseBoolean(properties.getProperty(KEY_SPECULATIVE_BREEDING, "false").trim()));
+                simulation.setEpisodeEvaluation(Boolean.parseBoolean(properties.getProperty(KEY_EPISODE_EVALUATION, "false").trim()));
+                simulation.setSteadyState(Boolean.parseBoolean(properties.getProperty(KEY_STEADY_STATE, "false").trim()));
+                simulation.setHistoryOnDisk(Boolean.parseBoolean(properties.getProperty(KEY_HISTORY_ON_DISK, "false").trim()));
+            }
+            batch.setIslands(numberOfIslands, migrationInterval, getInt(KEY_ISLAND_MIGRANTS, 2));
+            if(properties.containsKey(KEY_SEED)){
+                batch.setSeed(Long.parseLong(properties.getProperty(KEY_SEED).trim()));
+            }
+            //The batches run one after the other and add their results to the same file
+            batch.setResultsFile(resultsFile, !batches.isEmpty());
+            batch.setResultsSyncInterval(getInt(KEY_RESULTS_SYNC_INTERVAL, 10));
+            batches.add(batch);
+        }
+
+        return batches;
+    }
+
+    /**
+     * Overrides the options of the model with the ones set in the job file
+     * @param model the model to modify
+     */
+    private void applyOptions(NeuralNetworkModel<?> model){
+        if(properties.containsKey(KEY_POPULATION)){
+            model.getSimulationOption().put(NeuralNetworkModel.KEY_NB_CARS, new OptionInt(getInt(KEY_POPULATION, 0)));
+        }
+        if(properties.containsKey(KEY_SENSORS)){
+            model.getSimulationOption().put(NeuralNetworkModel.KEY_NB_SENSORS, new OptionInt(getInt(KEY_SENSORS, 0)));
+        }
+        if(properties.containsKey(KEY_MUTATION_CHANCE)){
+            model.getGeneticOption().put(NeuralNetworkModel.KEY_MUTATION_CHANCE, new OptionDouble(getDouble(KEY_MUTATION_CHANCE)));
+        }
+        if(properties.containsKey(KEY_WEIGHT_MODIFICATION_CHANCE)){
+            model.getGeneticOption().put(NeuralNetworkModel.KEY_WEIGHT_MODIFICATION_CHANCE, new OptionDouble(getDouble(KEY_WEIGHT_MODIFICATION_CHANCE)));
+        }
+    }
+
+    /**
+     * Creates the model of an algorithm of the AlgorithmManager found by its displayed name or by its class name
+     * @param name the name of the algorithm
+     * @return a new model of the algorithm
+     */
+    private NeuralNetworkModel<?> createModel(String name) throws ClassNotFoundException {
+        for(Class<?> algorithm : AlgorithmManager.algorithms){
+            AlgorithmInformation information = algorithm.getAnnotation(AlgorithmInformation.class);
+            if(information.name().equalsIgnoreCase(name) || algorithm.getSimpleName().equals(name) || algorithm.getName().equals(name)){
+                return NeuralNetworkModel.getInstanceOf(algorithm.asSubclass(NeuralNetworkModel.class));
+            }
+        }
+
+        throw new ClassNotFoundException("Unknown algorithm '" + name + "'. Available algorithms : " + AlgorithmManager.algorithmsName);
+    }
+
+    private int getInt(String key, int defaultValue){
+        String value = properties.getProperty(key);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private double getDouble(String key){
+        return Double.parseDouble(properties.getProperty(key).trim());
+    }
+
+    public int getSimulations(){
+        return getInt(KEY_SIMULATIONS, 1);
+    }
+
+    public int getGenerations(){
+        return getInt(KEY_GENERATIONS, 10);
+    }
+
+    /**
+     * @return the time limit of a generation in ms, 0 if the user preference should be used
+     */
+    public int getTimeLimit(){
+        return getInt(KEY_TIME_LIMIT, 0);
+    }
+
+    /**
+     * @return the CSV file to write the results to, null to use the default data/testN.csv file
+     */
+    public File getOutputFile(){
+        String output = properties.getProperty(KEY_OUTPUT);
+        return output == null ? null : new File(output.trim());
+    }
+
+    public File getMapFile() {
+        return mapFile;
+    }
+}
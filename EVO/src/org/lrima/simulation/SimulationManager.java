@@ -6,6 +6,7 @@ import org.lrima.network.interfaces.NeuralNetworkModel;
 import org.lrima.utils.CSVUtils;
 
 import javax.swing.*;
+import java.io.File;
 import java.util.ArrayList;
 
 public class SimulationManager implements BatchListener {
@@ -21,7 +22,7 @@ public class SimulationManager implements BatchListener {
 
         simulationBatches.forEach(simulationBatch -> {
             //TODO : ressemble beaucoup à addBash() (optimisation)
-            SimulationBatch newBatch = new SimulationBatch(simulationBatch.getAlgorithmModel(), simulationBatch.getBatchSize());
+            SimulationBatch newBatch = new SimulationBatch(simulationBatch.getAlgorithmModel(), simulationBatch.getNumberOfRuns());
             newArray.add(newBatch);
             newBatch.addBatchListener(this);
         });
@@ -54,9 +55,6 @@ public class SimulationManager implements BatchListener {
             public void run() {
                 ConclusionFrame conclusionFrame = new ConclusionFrame(simulationBatches);
                 conclusionFrame.setVisible(true);
-
-                CSVUtils.toCSV(simulationBatches);
-
             }
         });
     }
@@ -78,8 +76,8 @@ public class SimulationManager implements BatchListener {
      *
      * @param algorithm the algorithm to use
      */
-    public void addBatch(NeuralNetworkModel algorithm, int numberInBatch) {
-        SimulationBatch simulationBatch = new SimulationBatch(algorithm, numberInBatch);
+    public void addBatch(NeuralNetworkModel algorithm, int numberOfRuns) {
+        SimulationBatch simulationBatch = new SimulationBatch(algorithm, numberOfRuns);
         this.simulationBatches.add(simulationBatch);
         simulationBatch.addBatchListener(this);
     }
@@ -89,6 +87,13 @@ public class SimulationManager implements BatchListener {
     }
 
     public void start(){
+        //The batches run one after the other and write each generation in the same file as soon as it ends
+        File resultsFile = CSVUtils.getNewFile();
+        System.out.println("Printing in CSV file at " + resultsFile.getAbsolutePath());
+        for(int i = 0 ; i < simulationBatches.size() ; i++){
+            simulationBatches.get(i).setResultsFile(resultsFile, i > 0);
+        }
+
         this.startBatch();
     }
 
@@ -96,7 +101,7 @@ public class SimulationManager implements BatchListener {
         return ("Algorithm: " + getCurrentSimulation().getAlgorithm().getAlgorithmInformationAnnotation().name() + " ("+ (currentBatch+1) +" / " + getMaxBatches() +")" +
             "\nSimulation " + (getCurrentBatch().getCurrentSimulationIndex() + 1) + " / " + getCurrentBatch().getSimulations().length +
             "\nGeneration: " + getCurrentSimulation().getGeneration() + " / " + getCurrentSimulation().getMaxGenerations() +
-            "\nTime: " + getCurrentSimulation().simulationTime / 1000);
+            "\nTime: " + getCurrentSimulation().getSimulationTime() / 1000);
     }
 
     private int getMaxBatches (){
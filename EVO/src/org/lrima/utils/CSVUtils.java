@@ -1,15 +1,8 @@
 package org.lrima.utils;
 
-import org.lrima.simulation.Generation;
-import org.lrima.simulation.Simulation;
-import org.lrima.simulation.SimulationBatch;
-
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Writer;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 public class CSVUtils {
@@ -64,7 +57,10 @@ public class CSVUtils {
 
     }
 
-    public static void toCSV(ArrayList<SimulationBatch> simulationBatches)  {
+    /**
+     * @return the first data/testN.csv file that doesn't exist
+     */
+    public static File getNewFile(){
         String filename = "data/test";
         File file;
         int i = 0;
@@ -73,45 +69,6 @@ public class CSVUtils {
             i++;
         }while(file.exists());
 
-        System.out.println("Printing in CSV file at " + file.getAbsolutePath());
-
-        try {
-            FileWriter fileWriter = new FileWriter(file.getAbsolutePath());
-
-            for(SimulationBatch simulationBatch : simulationBatches){
-                CSVUtils.writeLine(fileWriter, Arrays.asList("Algorithm", simulationBatch.getAlgorithmModel().getName()));
-
-                for(int simulationCount = 0; simulationCount < simulationBatch.getSimulations().length; simulationCount++){
-                    Simulation simulation = simulationBatch.getSimulations()[simulationCount];
-
-                    CSVUtils.writeLine(fileWriter, Arrays.asList("Simulation count", simulationCount+""));
-
-                    for(Generation gen : simulation.getGenerationList()){
-                        CSVUtils.writeLine(fileWriter, toString(gen.getAllFitnesses()) , ',','"');
-                    }
-
-
-
-                }
-            }
-
-            fileWriter.flush();
-            fileWriter.close();
-
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-
-
-    }
-
-    private static List<String> toString(ArrayList<Double> doubleList) {
-        List<String> stringList = new ArrayList<String>();
-
-        doubleList.forEach(d -> stringList.add(d.toString()));
-
-        return stringList;
+        return file;
     }
-
-
 }
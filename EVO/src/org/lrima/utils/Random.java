@@ -1,33 +1,69 @@
 package org.lrima.utils;
 
 public class Random {
+	//Random stream of the current thread. Math.random() is used when it is not set
+	private static final ThreadLocal<java.util.Random> threadRandom = new ThreadLocal<>();
 	
 	public static int getRandomIntegerValue(int min, int max) {
-		return (int) (Math.random()*(max-min)+min);
+		return (int) (nextDouble()*(max-min)+min);
 	}
 	
 	public static int getRandomIntegerValue(int max) {
-		return (int) (Math.random()*max);
+		return (int) (nextDouble()*max);
 	}
 	
 	public static float getRandomFloatValue(float max) {
-		return (float) (Math.random()*max);
+		return (float) (nextDouble()*max);
 	}
 	
 	public static float getRandomFloatValue(float min, float max) {
-		return (float) (Math.random()*(max-min)+min);
+		return (float) (nextDouble()*(max-min)+min);
 	}
 	
 	public static double getRandomDoubleValue(double max) {
-		return (double) (Math.random()*max);
+		return (double) (nextDouble()*max);
 	}
 	
 	public static double getRandomDoubleValue(double min, double max) {
-		return (double) (Math.random()*(max-min)+min);
+		return (double) (nextDouble()*(max-min)+min);
 	}
 
 	public static boolean getRandomBoolean(){
 		int random = Random.getRandomIntegerValue(0, 10);
 		return random < 5;
 	}
+
+	/**
+	 * @return a random long, used to seed other random streams
+	 */
+	public static long getRandomLong(){
+		java.util.Random random = threadRandom.get();
+		return random != null ? random.nextLong() : (long) ((Math.random() - 0.5) * 2 * Long.MAX_VALUE);
+	}
+
+	/**
+	 * Makes all the random values of the current thread come from a stream.
+	 * Work spread on many threads gives the same result if every part of it has its own seeded stream.
+	 * @param random the stream, null to use Math.random() again
+	 */
+	public static void setThreadRandom(java.util.Random random){
+		if(random == null){
+			threadRandom.remove();
+		}
+		else{
+			threadRandom.set(random);
+		}
+	}
+
+	/**
+	 * @return the stream of the current thread, null if Math.random() is used
+	 */
+	public static java.util.Random getThreadRandom(){
+		return threadRandom.get();
+	}
+
+	private static double nextDouble(){
+		java.util.Random random = threadRandom.get();
+		return random != null ? random.nextDouble() : Math.random();
+	}
 }
@@ -0,0 +1,85 @@
+package org.lrima.espece;
+
+import org.junit.Test;
+import org.lrima.core.UserPrefs;
+import org.lrima.map.Map;
+import org.lrima.network.algorithms.fullyconnected.FullyConnectedNeuralModel;
+import org.lrima.network.interfaces.NeuralNetwork;
+import org.lrima.simulation.Simulation;
+
+import java.awt.*;
+import java.util.LinkedHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EspeceTest {
+    //The time between two ticks of the simulation, in ms
+    private static final double TICK = 10;
+    private static final int NUMBER_OF_TICKS = 200;
+
+    /**
+     * Always gives the same speed to the wheels
+     */
+    private static class ConstantNetwork extends NeuralNetwork {
+        private final double right, left;
+
+        ConstantNetwork(double right, double left){
+            super(new LinkedHashMap<>());
+            this.right = right;
+            this.left = left;
+        }
+
+        @Override
+        public void feedForward() {
+            this.receiver.setNeuralNetworkOutput(right, left);
+        }
+
+        @Override
+        public NeuralNetwork crossOver(NeuralNetwork network1, NeuralNetwork network2) {
+            return this;
+        }
+    }
+
+    private static Espece newCar(Simulation simulation, double right, double left){
+        Espece espece = new Espece(simulation);
+        espece.setNumberSensor(3);
+        espece.setNeuralNetwork(new ConstantNetwork(right, left));
+
+        return espece;
+    }
+
+    @Test
+    public void fitnessStaysUnderTheFitnessItCanReach(){
+        Map map = new Map(10_000, 10_000);
+        map.setDepart(new Point(5000, 5000));
+        Simulation simulation = new Simulation(new FullyConnectedNeuralModel(), map, 0);
+        //The outputs of the networks are between 0 and 1, so a car moves at most this much at each tick
+        double maxStep = 2 * TICK * UserPrefs.getInt(UserPrefs.KEY_CAR_SPEED) / 100.0;
+
+        double[][] outputs = {{1, 1}, {1, 0.9}, {0.2, 1}, {1, 0}, {0.5, 0.5}};
+        for(double[] output : outputs){
+            Espece espece = newCar(simulation, output[0], output[1]);
+            double[] bounds = new double[NUMBER_OF_TICKS];
+            for(int tick = 0 ; tick < NUMBER_OF_TICKS ; tick++){
+                bounds[tick] = espece.getMaxReachableFitness((NUMBER_OF_TICKS - tick) * maxStep);
+                espece.update(TICK);
+            }
+            //The fitness is calculated before the car moves, so it takes one more tick to count the last move
+            espece.update(TICK);
+
+            for(int tick = 0 ; tick < NUMBER_OF_TICKS ; tick++){
+                assertTrue("Outputs " + output[0] + ", " + output[1] + " at tick " + tick + " : " + espece.getFitness() + " > " + bounds[tick],
+                        espece.getFitness() <= bounds[tick]);
+            }
+        }
+
+        //A car going straight at full speed almost gets to the bound
+        Espece straight = newCar(simulation, 1, 1);
+        double bound = straight.getMaxReachableFitness(NUMBER_OF_TICKS * maxStep);
+        for(int tick = 0 ; tick <= NUMBER_OF_TICKS ; tick++){
+            straight.update(TICK);
+        }
+        assertEquals(bound, straight.getFitness(), bound * 0.01);
+    }
+}
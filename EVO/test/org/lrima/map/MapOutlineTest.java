@@ -0,0 +1,205 @@
+package org.lrima.map;
+
+import org.junit.Test;
+import org.lrima.espece.Espece;
+import org.lrima.map.Studio.Drawables.Line;
+import org.lrima.map.Studio.Drawables.Obstacle;
+import org.lrima.map.Studio.tools.CreateObstacleTool;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseEvent;
+import java.awt.geom.Area;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MapOutlineTest {
+    private static final int NUMBER_OF_CARS = 20_000;
+    private static final int NUMBER_OF_CARS_PER_BUNDLED_MAP = 5_000;
+    private static final String[] BUNDLED_MAPS = {"default.map", "big.map", "example1.map", "test.map"};
+
+    /**
+     * Lines between points, like the obstacles drawn in the studio
+     */
+    private static class PolylineObstacle implements Obstacle {
+        private final ArrayList<Point> points = new ArrayList<>();
+
+        @Override
+        public ArrayList<Line> getLines() {
+            ArrayList<Line> lines = new ArrayList<>();
+            for(int i = 1 ; i < points.size() ; i++){
+                lines.add(new Line(points.get(i), points.get(i - 1)));
+            }
+
+            return lines;
+        }
+
+        @Override
+        public void drawWhileEditing(Graphics2D graphics, Point mousePosition) { }
+
+        @Override
+        public void onMouseClickCreate(MouseEvent event, CreateObstacleTool createObstacleTool, Point pointOnMap) { }
+
+        @Override
+        public ImageIcon getIcon() {
+            return null;
+        }
+
+        @Override
+        public ArrayList<Point> getKeyPoints() {
+            return points;
+        }
+    }
+
+    /**
+     * A closed ring around a center with a random radius at every point
+     */
+    private static PolylineObstacle ring(Random random, int centerX, int centerY, int radius, int numberOfPoints){
+        PolylineObstacle obstacle = new PolylineObstacle();
+        for(int i = 0 ; i <= numberOfPoints ; i++){
+            double angle = 2 * Math.PI * (i % numberOfPoints) / numberOfPoints;
+            int pointRadius = radius + random.nextInt(radius / 5) - radius / 10;
+            obstacle.points.add(i == numberOfPoints ? obstacle.points.get(0) : new Point(centerX + (int)(pointRadius * Math.cos(angle)), centerY + (int)(pointRadius * Math.sin(angle))));
+        }
+
+        return obstacle;
+    }
+
+    /**
+     * A track between two rings, with a wall that is not closed in the middle of the track
+     */
+    private static Map createMap(){
+        Random random = new Random(6);
+        Map map = new Map(10_000, 10_000);
+        map.getObstacles().add(ring(random, 5000, 5000, 4000, 40));
+        map.getObstacles().add(ring(random, 5000, 5000, 1500, 25));
+
+        PolylineObstacle wall = new PolylineObstacle();
+        wall.points.add(new Point(5000, 1200));
+        wall.points.add(new Point(5000, 2500));
+        wall.points.add(new Point(5300, 2600));
+        map.getObstacles().add(wall);
+        map.setDepart(new Point(5000, 2000));
+
+        return map;
+    }
+
+    /**
+     * The test with java.awt.geom.Area used before the outline
+     */
+    private static boolean isOutsideWithArea(Path2D mapShape, Path2D especeShape){
+        Area intersection = new Area(mapShape);
+        intersection.intersect(new Area(especeShape));
+        Area substract = new Area(especeShape);
+        substract.subtract(new Area(mapShape));
+
+        return !substract.isEmpty() && !intersection.getBounds().equals(especeShape.getBounds());
+    }
+
+    private static Point[] corners(Path2D especeShape){
+        Point[] corners = new Point[4];
+        double[] coordinates = new double[6];
+        PathIterator iterator = especeShape.getPathIterator(null);
+        for(int i = 0 ; i < 4 ; i++, iterator.next()){
+            iterator.currentSegment(coordinates);
+            corners[i] = new Point((int)coordinates[0], (int)coordinates[1]);
+        }
+
+        return corners;
+    }
+
+    /**
+     * Tests the outline with cars spread on the whole map and near its lines
+     *
+     * @return the number of cars outside of the map
+     */
+    private static int assertSameResultAsArea(Map map, Random random, int numberOfCars){
+        Path2D mapShape = map.getShape();
+        MapOutline outline = map.getGeometry().getOutline();
+        Rectangle bounds = mapShape.getBounds();
+
+        ArrayList<Line> lines = new ArrayList<>();
+        for(Obstacle obstacle : map.getObstacles()){
+            lines.addAll(obstacle.getLines());
+        }
+
+        int numberOutside = 0;
+        for(int i = 0 ; i < numberOfCars ; i++){
+            int x, y;
+            if(i % 3 == 0){
+                x = bounds.x + random.nextInt(bounds.width + 1);
+                y = bounds.y + random.nextInt(bounds.height + 1);
+            }
+            else{
+                //Most cars are near a line, where the two tests can disagree
+                Line line = lines.get(random.nextInt(lines.size()));
+                double t = random.nextDouble();
+                x = (int)(line.getStart().x + t * (line.getEnd().x - line.getStart().x) + random.nextGaussian() * 40) - Espece.ESPECES_WIDTH / 2;
+                y = (int)(line.getStart().y + t * (line.getEnd().y - line.getStart().y) + random.nextGaussian() * 40) - Espece.ESPECES_HEIGHT / 2;
+            }
+            double orientation = i % 4 == 0 ? random.nextInt(8) * Math.PI / 4 : random.nextDouble() * 2 * Math.PI;
+
+            Path2D especeShape = Espece.getShape(x, y, orientation);
+            Point[] corners = corners(especeShape);
+            boolean expected = isOutsideWithArea(mapShape, especeShape);
+            if(expected){
+                numberOutside++;
+            }
+
+            assertEquals("Car at (" + x + ", " + y + ") turned by " + orientation, expected,
+                    outline.isOutside(corners[0], corners[1], corners[2], corners[3]));
+        }
+
+        return numberOutside;
+    }
+
+    @Test
+    public void givesTheSameResultAsArea(){
+        int numberOutside = assertSameResultAsArea(createMap(), new Random(7), NUMBER_OF_CARS);
+
+        //Both results are tested many times
+        assertTrue(numberOutside > NUMBER_OF_CARS / 10);
+        assertTrue(numberOutside < NUMBER_OF_CARS * 9 / 10);
+    }
+
+    @Test
+    public void givesTheSameResultAsAreaOnTheBundledMaps() throws Exception {
+        //The tests run in the EVO folder and the maps are in the folder above
+        for(String name : BUNDLED_MAPS){
+            Map map = Map.loadMap(new File("../" + name));
+            int numberOutside = assertSameResultAsArea(map, new Random(name.hashCode()), NUMBER_OF_CARS_PER_BUNDLED_MAP);
+
+            assertTrue(name + " has cars outside", numberOutside > 0);
+            assertTrue(name + " has cars inside", numberOutside < NUMBER_OF_CARS_PER_BUNDLED_MAP);
+        }
+    }
+
+    @Test
+    public void carOnTheTrackStays(){
+        Map map = createMap();
+        MapOutline outline = map.getGeometry().getOutline();
+
+        Point[] corners = corners(Espece.getShape(5000 - 2700, 5000, 0));
+        assertFalse(outline.isOutside(corners[0], corners[1], corners[2], corners[3]));
+    }
+
+    @Test
+    public void carOutsideOfTheMapDies(){
+        Map map = createMap();
+        MapOutline outline = map.getGeometry().getOutline();
+
+        //In the corner of the map, outside of the outer ring
+        Point[] outsideTheTrack = corners(Espece.getShape(200, 200, 0));
+        assertTrue(outline.isOutside(outsideTheTrack[0], outsideTheTrack[1], outsideTheTrack[2], outsideTheTrack[3]));
+
+        Point[] farAway = corners(Espece.getShape(50_000, -50_000, 1));
+        assertTrue(outline.isOutside(farAway[0], farAway[1], farAway[2], farAway[3]));
+    }
+}
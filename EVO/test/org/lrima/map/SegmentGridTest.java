@@ -0,0 +1,106 @@
+package org.lrima.map;
+
+import org.junit.Test;
+import org.lrima.espece.capteur.Capteur;
+import org.lrima.map.Studio.Drawables.Line;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class SegmentGridTest {
+    private static final int NUMBER_OF_SENSORS = 20_000;
+
+    /**
+     * The value of a sensor tested against every segment, like before the grid
+     */
+    private static double bruteForce(double[] endpoints, int segmentCount, double x1, double y1, double x2, double y2){
+        double value = 1.0;
+        for(int i = 0 ; i < segmentCount ; i++){
+            double capteurValue = Line.getCapteurValue(endpoints[i * 4], endpoints[i * 4 + 1], endpoints[i * 4 + 2], endpoints[i * 4 + 3], x1, y1, x2, y2);
+            if(capteurValue <= value){
+                value = capteurValue;
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * Segments of a map : integer points, some horizontal and vertical, some of length 0
+     */
+    private static double[] randomSegments(Random random, int segmentCount, int size){
+        double[] endpoints = new double[segmentCount * 4];
+        for(int i = 0 ; i < segmentCount ; i++){
+            int x1 = random.nextInt(size), y1 = random.nextInt(size);
+            int x2, y2;
+            switch(i % 5){
+                case 0: x2 = x1; y2 = random.nextInt(size); break;
+                case 1: x2 = random.nextInt(size); y2 = y1; break;
+                case 2: x2 = x1; y2 = y1; break;
+                default: x2 = x1 + random.nextInt(800) - 400; y2 = y1 + random.nextInt(800) - 400;
+            }
+            endpoints[i * 4] = x1;
+            endpoints[i * 4 + 1] = y1;
+            endpoints[i * 4 + 2] = x2;
+            endpoints[i * 4 + 3] = y2;
+        }
+
+        return endpoints;
+    }
+
+    private static void assertSameAsBruteForce(double[] endpoints, int segmentCount, Random random, int size){
+        SegmentGrid grid = new SegmentGrid(endpoints, segmentCount);
+
+        for(int i = 0 ; i < NUMBER_OF_SENSORS ; i++){
+            //Some sensors start outside of the grid
+            double x1 = random.nextInt(size + 2000) - 1000;
+            double y1 = random.nextInt(size + 2000) - 1000;
+            if(i % 2 == 0){
+                x1 += random.nextDouble();
+                y1 += random.nextDouble();
+            }
+            //Some sensors are horizontal, vertical or diagonal, like the sensors of a car turned by a multiple of 45 degrees
+            double angle = i % 3 == 0 ? random.nextInt(8) * Math.PI / 4 : random.nextDouble() * 2 * Math.PI;
+            double x2 = x1 + (int)(Capteur.CAPTEUR_LENGHT * Math.cos(angle));
+            double y2 = y1 + (int)(Capteur.CAPTEUR_LENGHT * Math.sin(angle));
+
+            double expected = bruteForce(endpoints, segmentCount, x1, y1, x2, y2);
+            assertEquals("Sensor from (" + x1 + ", " + y1 + ") to (" + x2 + ", " + y2 + ")",
+                    Double.doubleToLongBits(expected), Double.doubleToLongBits(grid.getCapteurValue(x1, y1, x2, y2)));
+        }
+    }
+
+    @Test
+    public void givesTheSameValueAsTestingEverySegment(){
+        Random random = new Random(4);
+        assertSameAsBruteForce(randomSegments(random, 300, 10_000), 300, random, 10_000);
+    }
+
+    @Test
+    public void givesTheSameValueWhenTheCellsAreLimited(){
+        //Many short segments on a big map, so the size of the cells is limited by the number of cells
+        Random random = new Random(5);
+        int segmentCount = 5000;
+        double[] endpoints = new double[segmentCount * 4];
+        for(int i = 0 ; i < segmentCount ; i++){
+            int x = random.nextInt(100_000), y = random.nextInt(100_000);
+            endpoints[i * 4] = x;
+            endpoints[i * 4 + 1] = y;
+            endpoints[i * 4 + 2] = x + random.nextInt(21) - 10;
+            endpoints[i * 4 + 3] = y + random.nextInt(21) - 10;
+        }
+
+        SegmentGrid grid = new SegmentGrid(endpoints, segmentCount);
+        assertEquals(256, Math.max(grid.getColumns(), grid.getRows()));
+        assertSameAsBruteForce(endpoints, segmentCount, random, 100_000);
+    }
+
+    @Test
+    public void sensorTouchesNothingWithoutSegments(){
+        SegmentGrid grid = new SegmentGrid(new double[0], 0);
+
+        assertEquals(1.0, grid.getCapteurValue(0, 0, 1500, 0), 0);
+        assertEquals(1.0, grid.getCapteurValue(-10, -10, 10, 10), 0);
+    }
+}
@@ -0,0 +1,32 @@
+package org.lrima.map.Studio.Drawables;
+
+import org.junit.Test;
+import org.lrima.espece.capteur.Capteur;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class LineTest {
+
+    @Test
+    public void capteurCrossingTheLineGivesTheDistance(){
+        double value = Line.getCapteurValue(0, -100, 0, 100, -500, 0, -500 + Capteur.CAPTEUR_LENGHT, 0);
+
+        assertEquals(500.0 / Capteur.CAPTEUR_LENGHT, value, 1e-9);
+    }
+
+    @Test
+    public void parallelCapteurDoesNotCollide(){
+        double value = Line.getCapteurValue(0, 10, 100, 10, 0, 0, Capteur.CAPTEUR_LENGHT, 0);
+
+        assertEquals(1.0, value, 0);
+    }
+
+    @Test
+    public void capteurOnTheSameStraightLineCollides(){
+        //After the end of the line, but parallel lines on the same straight line always collide
+        double value = Line.getCapteurValue(0, 0, 100, 0, 200, 0, 200 + Capteur.CAPTEUR_LENGHT, 0);
+
+        assertNotEquals(1.0, value, 0);
+    }
+}
@@ -0,0 +1,117 @@
+package org.lrima.network.algorithms.fullyconnected;
+
+import org.junit.Test;
+import org.lrima.network.interfaces.NeuralNetwork;
+import org.lrima.network.interfaces.NeuralNetworkReceiver;
+import org.lrima.network.interfaces.NeuralNetworkTransmitter;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class FullyConnectedBatchTest {
+    private static final int NUMBER_OF_SENSORS = 7;
+    private static final int NUMBER_OF_CARS = 100;
+
+    private static class Sensor implements NeuralNetworkTransmitter {
+        private double value;
+
+        @Override
+        public double getNeuralNetworkInput() {
+            return value;
+        }
+    }
+
+    private static class Wheels implements NeuralNetworkReceiver {
+        private final double[] output = new double[2];
+
+        @Override
+        public void setNeuralNetworkOutput(double... outputs) {
+            output[0] = outputs[0];
+            output[1] = outputs[1];
+        }
+
+        @Override
+        public int getSize() {
+            return 2;
+        }
+    }
+
+    private final Random random = new Random(8);
+    private final ArrayList<Sensor> allSensors = new ArrayList<>();
+    private final ArrayList<Wheels> allWheels = new ArrayList<>();
+
+    private FullyConnectedNeuralNetwork newNetwork(){
+        ArrayList<Sensor> sensors = new ArrayList<>();
+        for(int i = 0 ; i < NUMBER_OF_SENSORS ; i++){
+            sensors.add(new Sensor());
+        }
+        allSensors.addAll(sensors);
+        Wheels wheels = new Wheels();
+        allWheels.add(wheels);
+
+        FullyConnectedNeuralNetwork network = new FullyConnectedNeuralNetwork(new FullyConnectedNeuralModel().getOptions());
+        network.init(sensors, wheels);
+
+        return network;
+    }
+
+    /**
+     * Checks that the batch gives every network the same output as calculating it alone
+     */
+    private void assertSameAsFeedForward(FullyConnectedBatch batch, ArrayList<FullyConnectedNeuralNetwork> networks){
+        for(Sensor sensor : allSensors){
+            sensor.value = random.nextDouble();
+        }
+
+        batch.feedForward(networks.toArray(new NeuralNetwork[0]), networks.size());
+        double[][] batchOutputs = new double[allWheels.size()][];
+        for(int i = 0 ; i < allWheels.size() ; i++){
+            batchOutputs[i] = allWheels.get(i).output.clone();
+        }
+
+        for(FullyConnectedNeuralNetwork network : networks){
+            network.feedForward();
+        }
+        for(int i = 0 ; i < allWheels.size() ; i++){
+            assertArrayEquals(allWheels.get(i).output, batchOutputs[i], 0);
+        }
+    }
+
+    @Test
+    public void givesTheSameOutputAsEachNetwork(){
+        FullyConnectedBatch batch = new FullyConnectedBatch();
+        ArrayList<FullyConnectedNeuralNetwork> networks = new ArrayList<>();
+        for(int i = 0 ; i < NUMBER_OF_CARS ; i++){
+            networks.add(newNetwork());
+        }
+
+        assertSameAsFeedForward(batch, networks);
+
+        //Cars die during the generation
+        for(int tick = 0 ; tick < 20 ; tick++){
+            networks.remove(random.nextInt(networks.size()));
+            assertSameAsFeedForward(batch, networks);
+        }
+    }
+
+    @Test
+    public void replacementTakesThePlaceOfADeadCar(){
+        FullyConnectedBatch batch = new FullyConnectedBatch();
+        ArrayList<FullyConnectedNeuralNetwork> networks = new ArrayList<>();
+        for(int i = 0 ; i < NUMBER_OF_CARS ; i++){
+            networks.add(newNetwork());
+        }
+        assertSameAsFeedForward(batch, networks);
+
+        //In the steady state mode, the dead cars are replaced by new cars at the end of the list
+        for(int tick = 0 ; tick < 50 ; tick++){
+            for(int dead = random.nextInt(4) ; dead > 0 ; dead--){
+                networks.remove(random.nextInt(networks.size()));
+                networks.add(newNetwork());
+            }
+            assertSameAsFeedForward(batch, networks);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.lrima.network.algorithms.fullyconnected;
+
+import org.junit.Test;
+import org.lrima.network.interfaces.NeuralNetworkReceiver;
+import org.lrima.network.interfaces.NeuralNetworkTransmitter;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotSame;
+
+public class FullyConnectedNeuralNetworkTest {
+    private static final int NUMBER_OF_SENSORS = 7;
+
+    private static class Sensor implements NeuralNetworkTransmitter {
+        @Override
+        public double getNeuralNetworkInput() {
+            return 0.5;
+        }
+    }
+
+    private static class Wheels implements NeuralNetworkReceiver {
+        @Override
+        public void setNeuralNetworkOutput(double... outputs) { }
+
+        @Override
+        public int getSize() {
+            return 2;
+        }
+    }
+
+    /**
+     * Gives the network to a new car, like {@link org.lrima.espece.Espece#setNeuralNetwork} does
+     */
+    private static void giveToNewCar(FullyConnectedNeuralNetwork network){
+        ArrayList<Sensor> sensors = new ArrayList<>();
+        for(int i = 0 ; i < NUMBER_OF_SENSORS ; i++){
+            sensors.add(new Sensor());
+        }
+        network.init(sensors, new Wheels());
+    }
+
+    private static FullyConnectedNeuralNetwork newNetwork(){
+        FullyConnectedNeuralNetwork network = new FullyConnectedNeuralNetwork(new FullyConnectedNeuralModel().getOptions());
+        giveToNewCar(network);
+
+        return network;
+    }
+
+    @Test
+    public void migrantKeepsTheWeightsOfItsSource(){
+        FullyConnectedNeuralNetwork source = newNetwork();
+
+        FullyConnectedNeuralNetwork migrant = source.copy();
+        giveToNewCar(migrant);
+
+        assertArrayEquals(source.getGenotype().toArray(), migrant.getGenotype().toArray(), 0);
+        //The source can be mutated without mutating the migrant
+        assertNotSame(source.getGenotype().toArray(), migrant.getGenotype().toArray());
+    }
+
+    @Test
+    public void childKeepsTheWeightsOfItsParents(){
+        FullyConnectedNeuralNetwork parent1 = newNetwork();
+        FullyConnectedNeuralNetwork parent2 = newNetwork();
+
+        FullyConnectedNeuralNetwork child = parent1.crossOver(parent1, parent2);
+        double[] expected = child.getGenotype().toArray().clone();
+        giveToNewCar(child);
+
+        assertArrayEquals(expected, child.getGenotype().toArray(), 0);
+    }
+}
@@ -0,0 +1,165 @@
+package org.lrima.network.algorithms.improved_neat;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.lrima.network.interfaces.NeuralNetworkReceiver;
+import org.lrima.network.interfaces.NeuralNetworkTransmitter;
+import org.lrima.utils.Random;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ImprovedNeatGenomeTest {
+    private static final int NUMBER_OF_SENSORS = 5;
+
+    private static class Wheels implements NeuralNetworkReceiver {
+        @Override
+        public void setNeuralNetworkOutput(double... outputs) { }
+
+        @Override
+        public int getSize() {
+            return 2;
+        }
+    }
+
+    @Before
+    public void seed(){
+        Random.setThreadRandom(new java.util.Random(11));
+    }
+
+    @After
+    public void unseed(){
+        Random.setThreadRandom(null);
+    }
+
+    private static void giveToNewCar(ImprovedNeatGenome genome){
+        ArrayList<NeuralNetworkTransmitter> sensors = new ArrayList<>();
+        for(int i = 0 ; i < NUMBER_OF_SENSORS ; i++){
+            sensors.add(() -> 0.5);
+        }
+        genome.init(sensors, new Wheels());
+    }
+
+    private static ImprovedNeatGenome newGenome(){
+        ImprovedNeatGenome genome = new ImprovedNeatGenome(new ImprovedNeatModel().getOptions());
+        giveToNewCar(genome);
+
+        return genome;
+    }
+
+    private static ImprovedNeatGenome mutated(ImprovedNeatGenome genome, int generations){
+        for(int i = 0 ; i < generations ; i++){
+            genome.generationFinish();
+        }
+
+        return genome;
+    }
+
+    private static HashMap<Integer, ConnectionGene> byInnovation(ArrayList<ConnectionGene> connections){
+        HashMap<Integer, ConnectionGene> map = new HashMap<>();
+        for(ConnectionGene connection : connections){
+            map.put(connection.getInnovation(), connection);
+        }
+
+        return map;
+    }
+
+    private static String pair(ConnectionGene connection){
+        return connection.getInput().getInnovation() + "->" + connection.getOutput().getInnovation();
+    }
+
+    private static void assertSortedByInnovation(ImprovedNeatGenome genome){
+        for(int i = 1 ; i < genome.getNodes().size() ; i++){
+            assertTrue(genome.getNodes().get(i - 1).getInnovation() < genome.getNodes().get(i).getInnovation());
+        }
+        for(int i = 1 ; i < genome.getConnections().size() ; i++){
+            assertTrue(genome.getConnections().get(i - 1).getInnovation() < genome.getConnections().get(i).getInnovation());
+        }
+    }
+
+    @Test
+    public void childMatchesTheGenesByInnovation(){
+        ImprovedNeatGenome ancestor = mutated(newGenome(), 3);
+        //Both parents share the genes of their ancestor, then get their own genes
+        ImprovedNeatGenome parent1 = mutated((ImprovedNeatGenome) ancestor.crossOver(ancestor, ancestor), 4);
+        ImprovedNeatGenome parent2 = mutated((ImprovedNeatGenome) ancestor.crossOver(ancestor, ancestor), 4);
+        int lastInnovation = ConnectionGene.currentInnovation.get();
+
+        ImprovedNeatGenome child = (ImprovedNeatGenome) parent1.crossOver(parent1, parent2);
+        assertSortedByInnovation(child);
+
+        //The child has a copy of every node of the first parent
+        assertEquals(parent1.getNodes().size(), child.getNodes().size());
+        for(int i = 0 ; i < child.getNodes().size() ; i++){
+            assertEquals(parent1.getNodes().get(i).getInnovation(), child.getNodes().get(i).getInnovation());
+            assertNotSame(parent1.getNodes().get(i), child.getNodes().get(i));
+        }
+
+        HashMap<Integer, ConnectionGene> connections2 = byInnovation(parent2.getConnections());
+        HashMap<Integer, ConnectionGene> childConnections = byInnovation(child.getConnections());
+        ArrayList<String> disjointPairs = new ArrayList<>();
+        for(ConnectionGene connection : parent1.getConnections()){
+            ConnectionGene match = connections2.get(connection.getInnovation());
+            if(match != null){
+                //A matching gene is taken from one of the parents
+                ConnectionGene childConnection = childConnections.get(connection.getInnovation());
+                assertNotNull(childConnection);
+                assertTrue(childConnection.getWeight() == connection.getWeight() || childConnection.getWeight() == match.getWeight());
+            }
+            else{
+                disjointPairs.add(pair(connection));
+            }
+        }
+        int numberMatching = parent1.getConnections().size() - disjointPairs.size();
+        assertTrue(numberMatching > 0);
+        assertTrue(disjointPairs.size() > 0);
+
+        //The other genes are new connections between the same nodes, at the end of the list
+        assertEquals(parent1.getConnections().size(), child.getConnections().size());
+        for(int i = 0 ; i < child.getConnections().size() ; i++){
+            ConnectionGene connection = child.getConnections().get(i);
+            if(i < numberMatching){
+                assertTrue(connection.getInnovation() < lastInnovation);
+            }
+            else{
+                assertTrue(connection.getInnovation() >= lastInnovation);
+                assertEquals(disjointPairs.get(i - numberMatching), pair(connection));
+            }
+        }
+    }
+
+    @Test
+    public void childConnectionsUseTheNodesOfTheChild(){
+        ImprovedNeatGenome parent1 = mutated(newGenome(), 5);
+        ImprovedNeatGenome parent2 = mutated((ImprovedNeatGenome) parent1.crossOver(parent1, parent1), 3);
+
+        ImprovedNeatGenome child = (ImprovedNeatGenome) parent1.crossOver(parent1, parent2);
+        for(ConnectionGene connection : child.getConnections()){
+            int input = child.getNodes().indexOf(connection.getInput());
+            int output = child.getNodes().indexOf(connection.getOutput());
+            assertSame(child.getNodes().get(input), connection.getInput());
+            assertSame(child.getNodes().get(output), connection.getOutput());
+        }
+    }
+
+    @Test
+    public void mutationNeverDuplicatesAConnection(){
+        ImprovedNeatGenome parent = mutated(newGenome(), 5);
+        //The index of the connections is built again by the cross over
+        ImprovedNeatGenome child = mutated((ImprovedNeatGenome) parent.crossOver(parent, parent), 30);
+        assertSortedByInnovation(child);
+
+        HashSet<String> pairs = new HashSet<>();
+        for(ConnectionGene connection : child.getConnections()){
+            assertTrue("Connection " + pair(connection) + " is there twice", pairs.add(pair(connection)));
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.lrima.network.algorithms.improved_neat;
+
+import org.junit.Test;
+import org.lrima.network.functions.Function;
+import org.lrima.network.interfaces.NeuralNetworkTransmitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+public class NeatPhenotypeTest {
+
+    private static double sigmoid(double value){
+        return Function.SIGMOID.getValue(value);
+    }
+
+    private static ArrayList<NeuralNetworkTransmitter> inputs(double... values){
+        ArrayList<NeuralNetworkTransmitter> transmitters = new ArrayList<>();
+        for(double value : values){
+            transmitters.add(() -> value);
+        }
+
+        return transmitters;
+    }
+
+    @Test
+    public void nodeUsesTheValuesOfThisTick(){
+        NodeGene input = new NodeGene(NodeGene.Type.INPUT);
+        NodeGene output = new NodeGene(NodeGene.Type.OUTPUT);
+        NodeGene hidden1 = new NodeGene(NodeGene.Type.HIDDEN);
+        NodeGene hidden2 = new NodeGene(NodeGene.Type.HIDDEN);
+
+        //The nodes are not in the order of the calculation : the output and hidden2 come before the nodes going into them
+        ArrayList<NodeGene> nodes = new ArrayList<>(Arrays.asList(input, output, hidden2, hidden1));
+        ArrayList<ConnectionGene> connections = new ArrayList<>();
+        connections.add(new ConnectionGene(hidden2, output, 0.7));
+        connections.add(new ConnectionGene(hidden1, hidden2, -1.5));
+        connections.add(new ConnectionGene(input, hidden1, 2.0));
+
+        NeatPhenotype phenotype = new NeatPhenotype(nodes, connections);
+        double[] outputs = phenotype.feedForward(inputs(0.3));
+
+        double expected = sigmoid(0.7 * sigmoid(-1.5 * sigmoid(2.0 * 0.3)));
+        assertEquals(1, outputs.length);
+        assertEquals(expected, outputs[0], 0);
+        //The values are given back to the genes, to draw the network
+        assertEquals(expected, output.getValue(), 0);
+        assertEquals(sigmoid(2.0 * 0.3), hidden1.getValue(), 0);
+    }
+
+    @Test
+    public void disabledConnectionsAreIgnored(){
+        NodeGene input1 = new NodeGene(NodeGene.Type.INPUT);
+        NodeGene input2 = new NodeGene(NodeGene.Type.INPUT);
+        NodeGene output1 = new NodeGene(NodeGene.Type.OUTPUT);
+        NodeGene output2 = new NodeGene(NodeGene.Type.OUTPUT);
+        NodeGene hidden = new NodeGene(NodeGene.Type.HIDDEN);
+
+        ArrayList<NodeGene> nodes = new ArrayList<>(Arrays.asList(input1, input2, output1, output2, hidden));
+        ArrayList<ConnectionGene> connections = new ArrayList<>();
+        ConnectionGene split = new ConnectionGene(input1, output1, 3.0);
+        split.setExpresed(false);
+        connections.add(split);
+        connections.add(new ConnectionGene(input2, output2, -0.5));
+        connections.add(new ConnectionGene(input1, hidden, 1.0));
+        connections.add(new ConnectionGene(hidden, output1, 3.0));
+
+        NeatPhenotype phenotype = new NeatPhenotype(nodes, connections);
+        double[] outputs = phenotype.feedForward(inputs(0.4, 0.8));
+
+        assertEquals(sigmoid(3.0 * sigmoid(0.4)), outputs[0], 0);
+        assertEquals(sigmoid(-0.5 * 0.8), outputs[1], 0);
+    }
+
+    @Test
+    public void loopUsesTheValueOfThePreviousTick(){
+        NodeGene input = new NodeGene(NodeGene.Type.INPUT);
+        NodeGene output = new NodeGene(NodeGene.Type.OUTPUT);
+        NodeGene hidden1 = new NodeGene(NodeGene.Type.HIDDEN);
+        NodeGene hidden2 = new NodeGene(NodeGene.Type.HIDDEN);
+
+        ArrayList<NodeGene> nodes = new ArrayList<>(Arrays.asList(input, output, hidden1, hidden2));
+        ArrayList<ConnectionGene> connections = new ArrayList<>();
+        connections.add(new ConnectionGene(input, hidden1, 1.0));
+        connections.add(new ConnectionGene(hidden1, hidden2, 0.5));
+        connections.add(new ConnectionGene(hidden2, hidden1, -2.0));
+        connections.add(new ConnectionGene(hidden2, output, 1.5));
+
+        NeatPhenotype phenotype = new NeatPhenotype(nodes, connections);
+
+        //Only loops are left after the input, so they are cut at the first nodes of the genome : the output, then hidden1.
+        //Both use the value of hidden2 from the previous tick
+        double previousHidden2 = 0;
+        for(int tick = 0 ; tick < 3 ; tick++){
+            double[] outputs = phenotype.feedForward(inputs(0.6));
+
+            double expectedOutput = sigmoid(1.5 * previousHidden2);
+            double expectedHidden1 = sigmoid(1.0 * 0.6 - 2.0 * previousHidden2);
+            double expectedHidden2 = sigmoid(0.5 * expectedHidden1);
+
+            assertEquals("Tick " + tick, expectedOutput, outputs[0], 1e-15);
+            assertEquals("Tick " + tick, expectedHidden1, hidden1.getValue(), 1e-15);
+            assertEquals("Tick " + tick, expectedHidden2, hidden2.getValue(), 1e-15);
+            previousHidden2 = expectedHidden2;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.lrima.network.supervisors;
+
+import org.junit.After;
+import org.junit.Test;
+import org.lrima.utils.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class WeightedSamplerTest {
+
+    @After
+    public void unseed(){
+        Random.setThreadRandom(null);
+    }
+
+    /**
+     * Picks an item by adding the weights one by one, like before the tree
+     */
+    private static int linearPick(double[] weights, double value){
+        double sum = 0;
+        for(int i = 0 ; i < weights.length ; i++){
+            sum += weights[i];
+            if(weights[i] != 0 && value < sum){
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    @Test
+    public void picksEveryItemOnce(){
+        Random.setThreadRandom(new java.util.Random(12));
+        double[] weights = {3, 0.5, 8, 1, 1, 2.25, 7};
+        WeightedSampler sampler = new WeightedSampler(weights);
+
+        boolean[] picked = new boolean[weights.length];
+        for(int i = 0 ; i < weights.length ; i++){
+            int index = sampler.next();
+            assertFalse("Item " + index + " picked twice", picked[index]);
+            picked[index] = true;
+            assertEquals(weights.length - i - 1, sampler.size());
+        }
+
+        assertEquals(-1, sampler.next());
+        assertEquals(0, sampler.getTotalWeight(), 0);
+    }
+
+    @Test
+    public void picksTheSameItemsAsAddingTheWeights(){
+        //Integer weights, so the sums of the tree are exact
+        java.util.Random weightRandom = new java.util.Random(13);
+        for(int size : new int[]{1, 2, 5, 16, 37, 100}){
+            double[] weights = new double[size];
+            for(int i = 0 ; i < size ; i++){
+                weights[i] = 1 + weightRandom.nextInt(50);
+            }
+
+            Random.setThreadRandom(new java.util.Random(size));
+            WeightedSampler sampler = new WeightedSampler(weights);
+            java.util.Random values = new java.util.Random(size);
+            double[] left = weights.clone();
+            for(int i = 0 ; i < size ; i++){
+                double total = 0;
+                for(double weight : left){
+                    total += weight;
+                }
+                assertEquals(total, sampler.getTotalWeight(), 0);
+
+                int expected = linearPick(left, values.nextDouble() * total);
+                assertEquals("Pick " + i + " of " + size, expected, sampler.next());
+                left[expected] = 0;
+            }
+        }
+    }
+
+    @Test
+    public void removedItemIsNeverPicked(){
+        Random.setThreadRandom(new java.util.Random(14));
+        double[] weights = {5, 5, 100, 5};
+        WeightedSampler sampler = new WeightedSampler(weights);
+        sampler.remove(2);
+        //Removing it again changes nothing
+        sampler.remove(2);
+
+        assertEquals(3, sampler.size());
+        assertEquals(15, sampler.getTotalWeight(), 0);
+        for(int i = 0 ; i < 3 ; i++){
+            assertTrue(sampler.next() != 2);
+        }
+        assertEquals(-1, sampler.next());
+    }
+
+    @Test
+    public void chanceIsProportionalToTheWeight(){
+        Random.setThreadRandom(new java.util.Random(15));
+        double[] weights = {1, 2, 3, 4};
+        int trials = 40_000;
+        int[] firstPicks = new int[weights.length];
+        for(int i = 0 ; i < trials ; i++){
+            firstPicks[new WeightedSampler(weights).next()]++;
+        }
+
+        for(int i = 0 ; i < weights.length ; i++){
+            assertEquals(weights[i] / 10, firstPicks[i] / (double) trials, 0.01);
+        }
+    }
+
+    @Test
+    public void itemWithoutWeightIsNeverPicked(){
+        Random.setThreadRandom(new java.util.Random(16));
+        WeightedSampler sampler = new WeightedSampler(new double[]{0, 1});
+
+        assertEquals(1, sampler.size());
+        assertEquals(1, sampler.next());
+        assertEquals(0, sampler.size());
+        assertEquals(-1, sampler.next());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeWeightIsRefused(){
+        new WeightedSampler(new double[]{1, -1});
+    }
+}
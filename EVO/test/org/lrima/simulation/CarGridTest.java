@@ -0,0 +1,105 @@
+package org.lrima.simulation;
+
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class CarGridTest {
+
+    /**
+     * Goes through all the cars, like before the grid
+     */
+    private static int[] carsInWithAllCars(int[] x, int[] y, Rectangle area){
+        int[] found = new int[x.length];
+        int count = 0;
+        for(int i = 0 ; i < x.length ; i++){
+            if(area.contains(x[i], y[i])){
+                found[count++] = i;
+            }
+        }
+
+        return Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Goes through all the cars, like before the grid. The last car wins the ties
+     */
+    private static int nearestWithAllCars(int[] x, int[] y, Point point){
+        int nearest = -1;
+        long nearestDistance = Long.MAX_VALUE;
+        for(int i = 0 ; i < x.length ; i++){
+            long dx = (long)point.x - x[i];
+            long dy = (long)point.y - y[i];
+            long distance = dx * dx + dy * dy;
+            if(distance <= nearestDistance){
+                nearest = i;
+                nearestDistance = distance;
+            }
+        }
+
+        return nearest;
+    }
+
+    @Test
+    public void findsTheSameCarsAsGoingThroughAllTheCars(){
+        Random random = new Random(21);
+        for(int numberOfCars : new int[]{1, 2, 10, 100, 1000}){
+            //Small maps have many cars at the same position, so many ties
+            for(int mapSize : new int[]{20, 1000, 20_000}){
+                int[] x = new int[numberOfCars];
+                int[] y = new int[numberOfCars];
+                for(int i = 0 ; i < numberOfCars ; i++){
+                    x[i] = random.nextInt(mapSize) - mapSize / 4;
+                    y[i] = random.nextInt(mapSize) - mapSize / 4;
+                }
+                CarGrid grid = new CarGrid(x, y);
+
+                for(int i = 0 ; i < 200 ; i++){
+                    //Some of the points and areas go out of the cars
+                    Point point = new Point(random.nextInt(2 * mapSize) - mapSize, random.nextInt(2 * mapSize) - mapSize);
+                    assertEquals("Nearest to " + point, nearestWithAllCars(x, y, point), grid.getNearest(point));
+
+                    Rectangle area = new Rectangle(point.x, point.y, random.nextInt(mapSize), random.nextInt(mapSize));
+                    assertArrayEquals("Cars in " + area, carsInWithAllCars(x, y, area), grid.getCarsIn(area));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void lastCarWinsTheTies(){
+        //Cars 1 and 3 are at the same position, cars 0 and 2 are as far from (500, 1000) in other cells
+        int[] x = {0, 300, 1000, 300};
+        int[] y = {500, 300, 500, 300};
+        CarGrid grid = new CarGrid(x, y);
+
+        assertEquals(3, grid.getNearest(new Point(300, 300)));
+        assertEquals(2, grid.getNearest(new Point(500, 1000)));
+    }
+
+    @Test
+    public void clickOutsideOfTheCarsFindsTheClosest(){
+        int[] x = {0, 200, 5000};
+        int[] y = {0, 200, 5000};
+        CarGrid grid = new CarGrid(x, y);
+
+        assertEquals(0, grid.getNearest(new Point(-100_000, -3)));
+        assertEquals(2, grid.getNearest(new Point(80_000, 90_000)));
+        assertEquals(0, grid.getCarsIn(new Rectangle(-10_000, -10_000, 100, 100)).length);
+        assertArrayEquals(new int[]{0, 1, 2}, grid.getCarsIn(new Rectangle(-10_000, -10_000, 20_000, 20_000)));
+    }
+
+    @Test
+    public void emptySnapshotHasNoCar(){
+        CarGrid grid = new CarGrid(new int[0], new int[0]);
+
+        assertEquals(-1, grid.getNearest(new Point(0, 0)));
+        assertEquals(-1, grid.getNearest(new Point(-500, 800)));
+        assertEquals(0, grid.getCarsIn(new Rectangle(-1000, -1000, 2000, 2000)).length);
+    }
+}
@@ -0,0 +1,33 @@
+package org.lrima.simulation;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class FitnessHistoryFileTest {
+
+    @Test
+    public void valuesCanBeReadAfterTheFileIsClosed() throws IOException {
+        FitnessHistoryFile file = new FitnessHistoryFile();
+        long first = file.write(new double[]{3, 2, 1});
+        long second = file.write(new double[]{0.5, 0.25});
+
+        assertArrayEquals(new double[]{3, 2, 1}, file.read(first, 3), 0);
+
+        file.close();
+
+        assertArrayEquals(new double[]{3, 2, 1}, file.read(first, 3), 0);
+        assertArrayEquals(new double[]{0.5, 0.25}, file.read(second, 2), 0);
+    }
+
+    @Test(expected = IOException.class)
+    public void nothingCanBeWrittenAfterTheFileIsClosed() throws IOException {
+        FitnessHistoryFile file = new FitnessHistoryFile();
+        file.write(new double[]{1});
+        file.close();
+
+        file.write(new double[]{2});
+    }
+}
@@ -0,0 +1,106 @@
+package org.lrima.simulation;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class GenerationCSVWriterTest {
+    private File file;
+
+    @Before
+    public void createFile() throws IOException {
+        file = File.createTempFile("evo-results", ".csv");
+    }
+
+    @After
+    public void deleteFile(){
+        file.delete();
+    }
+
+    /**
+     * Writes a batch of two simulations with three generations each
+     */
+    private void writeBatch(boolean append, String algorithmName, int numberOfIslands) throws IOException {
+        GenerationCSVWriter writer = new GenerationCSVWriter(file, append, algorithmName, numberOfIslands, 2);
+        writer.start();
+        for(int generation = 1 ; generation <= 3 ; generation++){
+            for(int simulation = 0 ; simulation < 2 ; simulation++){
+                writer.write(simulation, new Generation(generation, fitnesses(simulation, generation)));
+            }
+        }
+        writer.close();
+    }
+
+    /**
+     * @return the fitnesses from the best, like they are written
+     */
+    private static double[] fitnesses(int simulation, int generation){
+        return new double[]{generation * 2.25, simulation + 0.5, 0};
+    }
+
+    /**
+     * @return the rows of the batch written by {@link #writeBatch}, without the quotes of the CSV file
+     */
+    private static List<List<String>> expectedRows(String algorithmName, int numberOfIslands){
+        List<List<String>> rows = new ArrayList<>();
+        rows.add(Arrays.asList("Algorithm", algorithmName));
+        if(numberOfIslands > 1){
+            rows.add(Arrays.asList("Islands", Integer.toString(numberOfIslands)));
+        }
+        rows.add(Arrays.asList("Simulation", "Generation", "Fitness"));
+        for(int generation = 1 ; generation <= 3 ; generation++){
+            for(int simulation = 0 ; simulation < 2 ; simulation++){
+                List<String> row = new ArrayList<>();
+                row.add(Integer.toString(simulation));
+                row.add(Integer.toString(generation));
+                for(double fitness : fitnesses(simulation, generation)){
+                    row.add(Double.toString(fitness));
+                }
+                rows.add(row);
+            }
+        }
+
+        return rows;
+    }
+
+    private List<List<String>> readRows() throws IOException {
+        List<List<String>> rows = new ArrayList<>();
+        for(String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)){
+            List<String> row = new ArrayList<>();
+            for(String value : line.split(",")){
+                row.add(value.substring(1, value.length() - 1));
+            }
+            rows.add(row);
+        }
+
+        return rows;
+    }
+
+    @Test
+    public void appendedBatchesAreBothInTheFile() throws IOException {
+        writeBatch(false, "Fully Connected", 1);
+        writeBatch(true, "Improved NEAT", 2);
+
+        List<List<String>> expected = expectedRows("Fully Connected", 1);
+        expected.addAll(expectedRows("Improved NEAT", 2));
+        assertEquals(expected, readRows());
+    }
+
+    @Test
+    public void batchWithoutAppendEmptiesTheFile() throws IOException {
+        writeBatch(false, "Fully Connected", 1);
+        writeBatch(false, "Improved NEAT", 1);
+
+        assertEquals(expectedRows("Improved NEAT", 1), readRows());
+    }
+}
@@ -0,0 +1,55 @@
+package org.lrima.simulation;
+
+import org.junit.Test;
+import org.lrima.network.interfaces.NeuralNetwork;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class MigrationMailboxTest {
+
+    @Test
+    public void migrantsGoToTheNextIsland(){
+        MigrationMailbox mailbox = new MigrationMailbox(3);
+        NeuralNetwork[] migrants = new NeuralNetwork[0];
+
+        mailbox.send(0, migrants);
+
+        assertNull(mailbox.receive(0));
+        assertSame(migrants, mailbox.receive(1));
+        assertNull(mailbox.receive(2));
+    }
+
+    @Test
+    public void lastIslandSendsToTheFirst(){
+        MigrationMailbox mailbox = new MigrationMailbox(3);
+        NeuralNetwork[] migrants = new NeuralNetwork[0];
+
+        mailbox.send(2, migrants);
+
+        assertSame(migrants, mailbox.receive(0));
+    }
+
+    @Test
+    public void migrantsAreReceivedOnce(){
+        MigrationMailbox mailbox = new MigrationMailbox(2);
+        mailbox.send(0, new NeuralNetwork[0]);
+
+        mailbox.receive(1);
+
+        assertNull(mailbox.receive(1));
+    }
+
+    @Test
+    public void newMigrantsReplaceTheOnesNotReceived(){
+        MigrationMailbox mailbox = new MigrationMailbox(2);
+        NeuralNetwork[] first = new NeuralNetwork[0];
+        NeuralNetwork[] second = new NeuralNetwork[0];
+
+        mailbox.send(0, first);
+        mailbox.send(0, second);
+
+        assertSame(second, mailbox.receive(1));
+        assertNull(mailbox.receive(1));
+    }
+}
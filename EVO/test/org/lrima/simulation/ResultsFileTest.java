@@ -0,0 +1,127 @@
+package org.lrima.simulation;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ResultsFileTest {
+    private File file;
+
+    @Before
+    public void createFile() throws IOException {
+        file = File.createTempFile("evo-results", ".evo");
+    }
+
+    @After
+    public void deleteFile(){
+        file.delete();
+    }
+
+    /**
+     * Writes a batch of two simulations with three generations each
+     */
+    private void writeBatch(boolean append, String algorithmName, long seed) throws IOException {
+        LinkedHashMap<String, String> options = new LinkedHashMap<>();
+        options.put("NB_CARS", "4");
+        options.put("MUTATION_CHANCE", "0.1");
+
+        ResultsBinaryWriter writer = new ResultsBinaryWriter(file, append, algorithmName, seed, options, 2);
+        writer.start();
+        for(int generation = 1 ; generation <= 3 ; generation++){
+            for(int simulation = 0 ; simulation < 2 ; simulation++){
+                writer.write(simulation, new Generation(generation, fitnesses(simulation, generation)));
+            }
+        }
+        writer.close();
+    }
+
+    private static double[] fitnesses(int simulation, int generation){
+        return new double[]{generation, simulation + 0.5, generation * 2.25, 0};
+    }
+
+    private static void assertSameGeneration(Generation expected, Generation actual){
+        assertEquals(expected.getGenerationNumber(), actual.getGenerationNumber());
+        assertArrayEquals(expected.getFitnesses(), actual.getFitnesses(), 0);
+        assertEquals(expected.getMoyenneFitness(), actual.getMoyenneFitness(), 0);
+        assertEquals(expected.getMedianFitness(), actual.getMedianFitness(), 0);
+        assertEquals(expected.getBestFitness(), actual.getBestFitness(), 0);
+        assertEquals(expected.getWorstFitness(), actual.getWorstFitness(), 0);
+        assertEquals(expected.getFirstQuartileFitness(), actual.getFirstQuartileFitness(), 0);
+        assertEquals(expected.getThirdQuartileFitness(), actual.getThirdQuartileFitness(), 0);
+    }
+
+    @Test
+    public void readsWhatWasWritten() throws IOException {
+        writeBatch(false, "Fully Connected", 42);
+        writeBatch(true, "Improved NEAT", -7);
+
+        ArrayList<BatchResults> batches = ResultsFile.read(file);
+
+        assertEquals(2, batches.size());
+        assertEquals("Fully Connected", batches.get(0).getAlgorithmName());
+        assertEquals(42, batches.get(0).getSeed());
+        assertEquals("Improved NEAT", batches.get(1).getAlgorithmName());
+        assertEquals(-7, batches.get(1).getSeed());
+        assertEquals("0.1", batches.get(1).getOptions().get("MUTATION_CHANCE"));
+
+        for(BatchResults batch : batches){
+            ArrayList<SimulationInformation> simulations = batch.getSimulationInformations();
+            assertEquals(2, simulations.size());
+            for(int simulation = 0 ; simulation < 2 ; simulation++){
+                ArrayList<Generation> generations = simulations.get(simulation).getGenerations();
+                assertEquals(3, generations.size());
+                for(int generation = 1 ; generation <= 3 ; generation++){
+                    assertSameGeneration(new Generation(generation, fitnesses(simulation, generation)), generations.get(generation - 1));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void ignoresTheRecordCutByTheEndOfTheFile() throws IOException {
+        writeBatch(false, "Fully Connected", 42);
+        //The last generation of the second simulation loses its last value
+        try(RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")){
+            randomAccessFile.setLength(randomAccessFile.length() - 3);
+        }
+
+        ArrayList<SimulationInformation> simulations = ResultsFile.read(file).get(0).getSimulationInformations();
+
+        assertEquals(3, simulations.get(0).getGenerations().size());
+        assertEquals(2, simulations.get(1).getGenerations().size());
+        assertSameGeneration(new Generation(2, fitnesses(1, 2)), simulations.get(1).getGenerations().get(1));
+    }
+
+    @Test(expected = IOException.class)
+    public void refusesADamagedSimulationIndex() throws IOException {
+        writeBatch(false, "Fully Connected", 42);
+        //The simulation index of the first generation, after the header and the batch record
+        long position = 8 + 1 + (2 + "Fully Connected".length()) + 8 + 4
+                + (2 + "NB_CARS".length()) + (2 + "4".length()) + (2 + "MUTATION_CHANCE".length()) + (2 + "0.1".length()) + 1;
+        try(RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")){
+            randomAccessFile.seek(position);
+            randomAccessFile.writeInt(Integer.MAX_VALUE);
+        }
+
+        ResultsFile.read(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void refusesAnotherFile() throws IOException {
+        try(RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")){
+            randomAccessFile.writeInt(0x12345678);
+            randomAccessFile.writeInt(1);
+        }
+
+        ResultsFile.read(file);
+    }
+}
@@ -0,0 +1,55 @@
+package org.lrima.simulation;
+
+import org.lrima.Interface.options.types.OptionInt;
+import org.lrima.map.Map;
+import org.lrima.network.interfaces.NeuralNetworkModel;
+
+import java.util.ArrayList;
+
+/**
+ * One simulation of a batch that gives the same generations every time it runs with the same seed.
+ * It uses one thread and none of the options that change the order of the cars, the tests can change them
+ * with {@link #getSimulation()} before it runs.
+ */
+class SeededSimulation {
+    private static final int GENERATION_TIME = 3000;
+
+    private final SimulationBatch batch;
+    private final Simulation simulation;
+
+    SeededSimulation(NeuralNetworkModel model, Map map, int numberOfCars, int numberOfGenerations){
+        model.getSimulationOption().put(NeuralNetworkModel.KEY_NB_CARS, new OptionInt(numberOfCars));
+
+        this.batch = new SimulationBatch(model, 1, map, numberOfGenerations, GENERATION_TIME);
+        this.simulation = batch.getSimulations()[0];
+        simulation.setTickThreads(1);
+        simulation.setBatchedInference(false);
+        simulation.setSpeculativeBreeding(false);
+        simulation.setEpisodeEvaluation(false);
+        simulation.setSteadyState(false);
+        simulation.setHistoryOnDisk(false);
+    }
+
+    Simulation getSimulation() {
+        return simulation;
+    }
+
+    /**
+     * Runs the simulation until it ends
+     * @param seed the seed of the batch
+     * @return the fitness of the cars of each generation
+     */
+    ArrayList<double[]> run(long seed) throws InterruptedException {
+        batch.setSeed(seed);
+
+        simulation.start();
+        simulation.join();
+
+        ArrayList<double[]> fitnesses = new ArrayList<>();
+        for(Generation generation : simulation.getGenerations()){
+            fitnesses.add(generation.getFitnesses());
+        }
+
+        return fitnesses;
+    }
+}
@@ -0,0 +1,57 @@
+package org.lrima.simulation;
+
+import org.junit.Test;
+import org.lrima.map.Map;
+import org.lrima.map.Studio.Drawables.MultipleLineObstacle;
+import org.lrima.network.algorithms.fullyconnected.FullyConnectedNeuralModel;
+
+import java.awt.*;
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class SeededSimulationTest {
+    private static final int NUMBER_OF_CARS = 60;
+    private static final int NUMBER_OF_GENERATIONS = 4;
+
+    /**
+     * A closed ring between two circles around the start
+     */
+    private static Map createMap(){
+        Map map = new Map(4000, 4000);
+        for(int radius : new int[]{600, 1500}){
+            MultipleLineObstacle circle = new MultipleLineObstacle();
+            for(int i = 0 ; i <= 30 ; i++){
+                double angle = 2 * Math.PI * (i % 30) / 30;
+                circle.getKeyPoints().add(new Point(2000 + (int)(radius * Math.cos(angle)), 2000 + (int)(radius * Math.sin(angle))));
+            }
+            map.getObstacles().add(circle);
+        }
+        map.setDepart(new Point(2000, 3000));
+
+        return map;
+    }
+
+    /**
+     * @return the fitness of the cars of each generation
+     */
+    private static ArrayList<double[]> run(int tickThreads) throws InterruptedException {
+        SeededSimulation simulation = new SeededSimulation(new FullyConnectedNeuralModel(), createMap(), NUMBER_OF_CARS, NUMBER_OF_GENERATIONS);
+        simulation.getSimulation().setTickThreads(tickThreads);
+
+        return simulation.run(42);
+    }
+
+    @Test
+    public void sameSeedGivesTheSameCarsWithAnyNumberOfThreads() throws InterruptedException {
+        ArrayList<double[]> oneThread = run(1);
+        ArrayList<double[]> fourThreads = run(4);
+
+        assertEquals(NUMBER_OF_GENERATIONS, oneThread.size());
+        assertEquals(oneThread.size(), fourThreads.size());
+        for(int i = 0 ; i < oneThread.size() ; i++){
+            assertArrayEquals("Generation " + i, oneThread.get(i), fourThreads.get(i), 0);
+        }
+    }
+}
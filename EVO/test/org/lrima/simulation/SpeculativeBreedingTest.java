@@ -0,0 +1,92 @@
+package org.lrima.simulation;
+
+import org.junit.Test;
+import org.lrima.espece.Espece;
+import org.lrima.map.Map;
+import org.lrima.map.Studio.Drawables.MultipleLineObstacle;
+import org.lrima.network.algorithms.fullyconnected.FullyConnectedNeuralModel;
+import org.lrima.network.supervisors.OtherSupervisor;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SpeculativeBreedingTest {
+    private static final int NUMBER_OF_CARS = 60;
+    private static final int NUMBER_OF_GENERATIONS = 6;
+
+    //Number of generations bred before the end of the generation before them
+    private static final AtomicInteger bredInAdvance = new AtomicInteger();
+
+    /**
+     * Counts the generations bred in the background
+     */
+    public static class CountingSupervisor extends OtherSupervisor {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public ArrayList<Espece> alterEspeceListAtGenerationFinish(ArrayList<Espece> especes, Simulation simulation) {
+            if(Thread.currentThread() != simulation){
+                bredInAdvance.incrementAndGet();
+            }
+
+            return super.alterEspeceListAtGenerationFinish(especes, simulation);
+        }
+    }
+
+    /**
+     * The fully connected network with a supervisor that only uses the best cars, so the generations can be bred in advance
+     */
+    private static class Model extends FullyConnectedNeuralModel {
+        private static final long serialVersionUID = 1L;
+
+        Model(){
+            this.superviser = new CountingSupervisor();
+        }
+    }
+
+    /**
+     * A square around the start. The cars going straight die far from the start, the ones turning around stay near it
+     */
+    private static Map createMap(){
+        Map map = new Map(4000, 4000);
+        MultipleLineObstacle square = new MultipleLineObstacle();
+        for(Point corner : new Point[]{new Point(1000, 1000), new Point(3000, 1000), new Point(3000, 3000), new Point(1000, 3000), new Point(1000, 1000)}){
+            square.getKeyPoints().add(corner);
+        }
+        map.getObstacles().add(square);
+        map.setDepart(new Point(2000, 2000));
+
+        return map;
+    }
+
+    /**
+     * @return the fitness of the cars of each generation
+     */
+    private static ArrayList<double[]> run(boolean speculativeBreeding) throws InterruptedException {
+        SeededSimulation simulation = new SeededSimulation(new Model(), createMap(), NUMBER_OF_CARS, NUMBER_OF_GENERATIONS);
+        simulation.getSimulation().setSpeculativeBreeding(speculativeBreeding);
+
+        return simulation.run(43);
+    }
+
+    @Test
+    public void breedingInAdvanceGivesTheSameGenerations() throws InterruptedException {
+        bredInAdvance.set(0);
+        ArrayList<double[]> atTheEnd = run(false);
+        assertEquals(0, bredInAdvance.get());
+
+        ArrayList<double[]> inAdvance = run(true);
+        assertTrue("No generation was bred in advance", bredInAdvance.get() > 0);
+
+        assertEquals(NUMBER_OF_GENERATIONS, atTheEnd.size());
+        assertEquals(atTheEnd.size(), inAdvance.size());
+        for(int i = 0 ; i < atTheEnd.size() ; i++){
+            assertArrayEquals("Generation " + i, atTheEnd.get(i), inAdvance.get(i), 0);
+        }
+    }
+}